@@ -0,0 +1,91 @@
+package ai.xfloor.examples.memory.accesslog;
+
+/**
+ * Per-thread, reused scratch record for the request being served. Request threads only store
+ * references and primitives here; formatting and token masking happen on the writer thread.
+ * Outside a request the {@link AccessLogFilter} is logging, every update is ignored, so an idle
+ * thread never keeps a request's data alive.
+ */
+public final class AccessLogContext {
+  private static final ThreadLocal<AccessLogContext> CURRENT =
+      ThreadLocal.withInitial(AccessLogContext::new);
+
+  String appId;
+  String floorId;
+  String accessToken;
+  int upstreamCalls;
+  int upstreamStatus;
+  long upstreamNanos;
+  long upstreamBytes;
+  String upstreamErrorBody;
+  private boolean active;
+
+  private AccessLogContext() {}
+
+  public static AccessLogContext current() {
+    return CURRENT.get();
+  }
+
+  void begin() {
+    reset();
+    active = true;
+  }
+
+  void end() {
+    active = false;
+    reset();
+  }
+
+  private void reset() {
+    appId = null;
+    floorId = null;
+    accessToken = null;
+    upstreamCalls = 0;
+    upstreamStatus = 0;
+    upstreamNanos = 0;
+    upstreamBytes = 0;
+    upstreamErrorBody = null;
+  }
+
+  public AccessLogContext app(String appId) {
+    if (active) {
+      this.appId = appId;
+    }
+    return this;
+  }
+
+  public AccessLogContext floor(String floorId) {
+    if (active) {
+      this.floorId = floorId;
+    }
+    return this;
+  }
+
+  public AccessLogContext token(String accessToken) {
+    if (active) {
+      this.accessToken = accessToken;
+    }
+    return this;
+  }
+
+  /** Keeps a reference only; the writer truncates it to the configured cap. */
+  public void upstreamError(String responseBody) {
+    if (active) {
+      this.upstreamErrorBody = responseBody;
+    }
+  }
+
+  void upstreamCall(int status, long nanos) {
+    if (active) {
+      upstreamCalls++;
+      upstreamStatus = status;
+      upstreamNanos += nanos;
+    }
+  }
+
+  void upstreamBytes(long bytes) {
+    if (active && bytes > 0) {
+      upstreamBytes += bytes;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package ai.xfloor.examples.memory.accesslog;
+
+/** Preallocated ring slot; overwritten in place for every request. */
+final class AccessLogEntry {
+  long timestampMs;
+  String method;
+  String endpoint;
+  int status;
+  long durationNanos;
+  long bytesIn;
+  long bytesOut;
+  String appId;
+  String floorId;
+  String accessToken;
+  int upstreamCalls;
+  int upstreamStatus;
+  long upstreamNanos;
+  long upstreamBytes;
+  String upstreamErrorBody;
+
+  void clearReferences() {
+    method = null;
+    endpoint = null;
+    appId = null;
+    floorId = null;
+    accessToken = null;
+    upstreamErrorBody = null;
+  }
+}
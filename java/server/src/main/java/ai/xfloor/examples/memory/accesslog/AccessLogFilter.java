@@ -0,0 +1,133 @@
+package ai.xfloor.examples.memory.accesslog;
+
+import ai.xfloor.examples.memory.auth.BearerTokens;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.Map;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/** Hands one access-log record per {@code /memory/*} request to the {@link AccessLogWriter}. */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+  private final AccessLogWriter writer;
+
+  public AccessLogFilter(AccessLogWriter writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !writer.isEnabled() || !path.startsWith("/memory/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    AccessLogContext context = AccessLogContext.current();
+    context.begin();
+    CountingResponse countingResponse = new CountingResponse(response);
+    long started = System.nanoTime();
+
+    try {
+      filterChain.doFilter(request, countingResponse);
+    } finally {
+      long durationNanos = System.nanoTime() - started;
+      describeFromRequest(request, context);
+
+      Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      writer.offer(
+          request.getMethod(),
+          route != null ? String.valueOf(route) : request.getRequestURI(),
+          response.getStatus(),
+          durationNanos,
+          Math.max(0, request.getContentLengthLong()),
+          countingResponse.bytesWritten,
+          context);
+      context.end();
+    }
+  }
+
+  /** Fills app, floor and token from the URL when the controller did not set them. */
+  private void describeFromRequest(HttpServletRequest request, AccessLogContext context) {
+    if (context.appId == null) {
+      context.appId = request.getParameter("app_id");
+    }
+    if (context.floorId == null) {
+      Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+      if (variables instanceof Map<?, ?> map && map.get("floorId") != null) {
+        context.floorId = String.valueOf(map.get("floorId"));
+      } else {
+        context.floorId = request.getParameter("floor_id");
+      }
+    }
+    if (context.accessToken == null) {
+      context.accessToken =
+          BearerTokens.fromAuthorization(request.getHeader(HttpHeaders.AUTHORIZATION));
+    }
+  }
+
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+    private long bytesWritten;
+    private ServletOutputStream outputStream;
+
+    CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        ServletOutputStream delegate = super.getOutputStream();
+        outputStream =
+            new ServletOutputStream() {
+              @Override
+              public boolean isReady() {
+                return delegate.isReady();
+              }
+
+              @Override
+              public void setWriteListener(WriteListener listener) {
+                delegate.setWriteListener(listener);
+              }
+
+              @Override
+              public void write(int value) throws IOException {
+                delegate.write(value);
+                bytesWritten++;
+              }
+
+              @Override
+              public void write(byte[] buffer, int offset, int length) throws IOException {
+                delegate.write(buffer, offset, length);
+                bytesWritten += length;
+              }
+
+              @Override
+              public void flush() throws IOException {
+                delegate.flush();
+              }
+
+              @Override
+              public void close() throws IOException {
+                delegate.close();
+              }
+            };
+      }
+      return outputStream;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package ai.xfloor.examples.memory.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated entries. Producers claim a
+ * sequence with one CAS and publish it per slot; when the ring is full the entry is dropped and
+ * counted rather than blocking the request thread.
+ */
+final class AccessLogRing {
+  private final AccessLogEntry[] slots;
+  private final AtomicLongArray published;
+  private final int mask;
+  private final AtomicLong claimed = new AtomicLong();
+  private final AtomicLong consumed = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+
+  AccessLogRing(int requestedCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+    this.slots = new AccessLogEntry[capacity];
+    this.published = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int index = 0; index < capacity; index++) {
+      slots[index] = new AccessLogEntry();
+      published.set(index, -1L);
+    }
+  }
+
+  /** Claims the next sequence, or returns {@code -1} when full. Must be followed by publish. */
+  long claim() {
+    long sequence;
+    do {
+      sequence = claimed.get();
+      if (sequence - consumed.get() >= slots.length) {
+        dropped.increment();
+        return -1L;
+      }
+    } while (!claimed.compareAndSet(sequence, sequence + 1));
+    return sequence;
+  }
+
+  AccessLogEntry slot(long sequence) {
+    return slots[(int) (sequence & mask)];
+  }
+
+  void publish(long sequence) {
+    published.lazySet((int) (sequence & mask), sequence);
+  }
+
+  /** Hands every published entry to {@code handler} in order; returns how many were drained. */
+  int drain(Consumer<AccessLogEntry> handler) {
+    int drained = 0;
+    long next = consumed.get();
+    while (published.get((int) (next & mask)) == next) {
+      AccessLogEntry entry = slots[(int) (next & mask)];
+      handler.accept(entry);
+      entry.clearReferences();
+      next++;
+      consumed.lazySet(next);
+      drained++;
+    }
+    return drained;
+  }
+
+  /** Whether the next entry to drain has been published. */
+  boolean hasPublished() {
+    long next = consumed.get();
+    return published.get((int) (next & mask)) == next;
+  }
+
+  long dropped() {
+    return dropped.sum();
+  }
+}
@@ -0,0 +1,197 @@
+package ai.xfloor.examples.memory.accesslog;
+
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the access-log ring on a single daemon thread and writes one JSON line per request to the
+ * {@code xfloor.access} logger, so appender I/O never runs on a request thread.
+ */
+@Component
+public class AccessLogWriter {
+  /** Upper bound on an idle wait, should a producer's wake-up race the writer going to sleep. */
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+  /** Drops are reported at most this often, including while the ring never empties. */
+  private static final long DROP_REPORT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  private static final Logger accessLog = LoggerFactory.getLogger("xfloor.access");
+  private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+  private final XfloorProperties.AccessLog settings;
+  private final AccessLogRing ring;
+  private final StringBuilder line = new StringBuilder(512);
+  private final Thread thread;
+  private volatile boolean running = true;
+  private volatile boolean idle;
+  private long reportedDrops;
+  private long lastDropReportNanos = System.nanoTime() - DROP_REPORT_NANOS;
+
+  public AccessLogWriter(XfloorProperties properties) {
+    this.settings = properties.getAccessLog();
+    this.ring = new AccessLogRing(settings.getBufferSize());
+    this.thread = new Thread(this::run, "xfloor-access-log");
+    thread.setDaemon(true);
+    if (settings.isEnabled()) {
+      thread.start();
+    }
+  }
+
+  public boolean isEnabled() {
+    return settings.isEnabled();
+  }
+
+  /** Copies the finished request into a ring slot; never blocks. */
+  void offer(
+      String method,
+      String endpoint,
+      int status,
+      long durationNanos,
+      long bytesIn,
+      long bytesOut,
+      AccessLogContext context) {
+    long sequence = ring.claim();
+    if (sequence < 0) {
+      return;
+    }
+
+    AccessLogEntry entry = ring.slot(sequence);
+    entry.timestampMs = System.currentTimeMillis();
+    entry.method = method;
+    entry.endpoint = endpoint;
+    entry.status = status;
+    entry.durationNanos = durationNanos;
+    entry.bytesIn = bytesIn;
+    entry.bytesOut = bytesOut;
+    entry.appId = context.appId;
+    entry.floorId = context.floorId;
+    entry.accessToken = context.accessToken;
+    entry.upstreamCalls = context.upstreamCalls;
+    entry.upstreamStatus = context.upstreamStatus;
+    entry.upstreamNanos = context.upstreamNanos;
+    entry.upstreamBytes = context.upstreamBytes;
+    entry.upstreamErrorBody = context.upstreamErrorBody;
+    ring.publish(sequence);
+    if (idle) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void run() {
+    while (running) {
+      int drained = ring.drain(this::write);
+      reportDrops(System.nanoTime());
+      if (drained == 0) {
+        idle = true;
+        if (!ring.hasPublished() && running) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        idle = false;
+      }
+    }
+    ring.drain(this::write);
+  }
+
+  private void write(AccessLogEntry entry) {
+    line.setLength(0);
+    line.append('{');
+    field("ts", Instant.ofEpochMilli(entry.timestampMs).toString());
+    field("method", entry.method);
+    field("endpoint", entry.endpoint);
+    number("status", entry.status);
+    number("duration_us", entry.durationNanos / 1_000);
+    number("bytes_in", entry.bytesIn);
+    number("bytes_out", entry.bytesOut);
+    field("app_id", entry.appId);
+    field("floor_id", entry.floorId);
+    field("token", maskToken(entry.accessToken));
+    number("upstream_calls", entry.upstreamCalls);
+    if (entry.upstreamCalls > 0) {
+      number("upstream_status", entry.upstreamStatus);
+      number("upstream_us", entry.upstreamNanos / 1_000);
+      number("upstream_bytes", entry.upstreamBytes);
+    }
+    field("upstream_error", truncate(entry.upstreamErrorBody));
+    line.setLength(line.length() - 1);
+    line.append('}');
+    accessLog.info(line.toString());
+  }
+
+  private void reportDrops(long nowNanos) {
+    if (nowNanos - lastDropReportNanos < DROP_REPORT_NANOS) {
+      return;
+    }
+    long drops = ring.dropped();
+    if (drops != reportedDrops) {
+      log.warn(
+          "Access log ring full; {} entries dropped so far ({} since last report)",
+          drops,
+          drops - reportedDrops);
+      reportedDrops = drops;
+      lastDropReportNanos = nowNanos;
+    }
+  }
+
+  private void field(String name, String value) {
+    if (value == null) {
+      return;
+    }
+    line.append('"').append(name).append("\":\"");
+    for (int index = 0; index < value.length(); index++) {
+      char ch = value.charAt(index);
+      switch (ch) {
+        case '"' -> line.append("\\\"");
+        case '\\' -> line.append("\\\\");
+        case '\n' -> line.append("\\n");
+        case '\r' -> line.append("\\r");
+        case '\t' -> line.append("\\t");
+        default -> {
+          if (ch < 0x20) {
+            line.append(String.format("\\u%04x", (int) ch));
+          } else {
+            line.append(ch);
+          }
+        }
+      }
+    }
+    line.append("\",");
+  }
+
+  private void number(String name, long value) {
+    line.append('"').append(name).append("\":").append(value).append(',');
+  }
+
+  private String truncate(String body) {
+    if (body == null || body.isBlank()) {
+      return null;
+    }
+    int max = Math.max(0, settings.getMaxBodyChars());
+    return body.length() <= max ? body : body.substring(0, max) + "...";
+  }
+
+  private static String maskToken(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+
+    String value = token.trim();
+    if (value.length() <= 14) {
+      return "***";
+    }
+    return value.substring(0, 8) + "..." + value.substring(value.length() - 6);
+  }
+
+  @PreDestroy
+  public void close() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(thread);
+    if (thread.isAlive()) {
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package ai.xfloor.examples.memory.accesslog;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+/**
+ * Adds the response body bytes read off the wire to the current access-log record. Unlike {@code
+ * Content-Length} this is known for chunked responses, and it is the compressed size when OkHttp
+ * decodes gzip transparently. SDK calls are synchronous, so the event fires on the request thread.
+ */
+public class UpstreamBytesListener extends EventListener {
+  @Override
+  public void responseBodyEnd(Call call, long byteCount) {
+    AccessLogContext.current().upstreamBytes(byteCount);
+  }
+}
@@ -0,0 +1,16 @@
+package ai.xfloor.examples.memory.accesslog;
+
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/** Adds each xFloor call's latency and status to the current access-log record. */
+public class UpstreamTimingInterceptor implements Interceptor {
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    long started = System.nanoTime();
+    Response response = chain.proceed(chain.request());
+    AccessLogContext.current().upstreamCall(response.code(), System.nanoTime() - started);
+    return response;
+  }
+}
@@ -0,0 +1,24 @@
+package ai.xfloor.examples.memory.auth;
+
+import java.util.Locale;
+
+/** Parses the bearer token out of an {@code Authorization} header value. */
+public final class BearerTokens {
+  private BearerTokens() {}
+
+  /**
+   * Returns the trimmed token, with an optional case-insensitive {@code Bearer } prefix removed, or
+   * {@code null} when the header is missing or carries no token.
+   */
+  public static String fromAuthorization(String authorization) {
+    if (authorization == null) {
+      return null;
+    }
+
+    String value = authorization.trim();
+    if (value.toLowerCase(Locale.ROOT).startsWith("bearer ")) {
+      value = value.substring(7).trim();
+    }
+    return value.isEmpty() ? null : value;
+  }
+}
@@ -0,0 +1,147 @@
+package ai.xfloor.examples.memory.auth;
+
+import ai.xfloor.examples.memory.cache.CacheKeys;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import ai.xfloor.memory.client.JSON;
+import com.google.gson.Gson;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which user and app each issued bearer token belongs to, and which tokens xFloor has
+ * turned away. Entries are keyed by {@link CacheKeys#tokenIdentity} so raw tokens are never held.
+ * Tokens this replica has not seen are always passed through to xFloor.
+ */
+@Component
+public class TokenIdentityCache {
+  public enum Status {
+    UNKNOWN,
+    VALID,
+    REJECTED,
+    EXPIRED
+  }
+
+  private final XfloorProperties.TokenCache settings;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Gson gson;
+
+  public TokenIdentityCache(XfloorProperties properties) {
+    this.settings = properties.getTokenCache();
+    this.gson = JSON.getGson();
+  }
+
+  public boolean isEnabled() {
+    return settings.isEnabled();
+  }
+
+  /** Records a token issued by sign-in or sign-up; its JWT {@code exp} wins over the ttl. */
+  public void remember(String accessToken, String userId, String appId) {
+    if (!settings.isEnabled() || accessToken == null || accessToken.isBlank()) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    long claimedExpiry = expiryClaimMs(accessToken);
+    boolean fromClaim = claimedExpiry > 0;
+    long expiresAt = fromClaim ? claimedExpiry : now + settings.getTtl().toMillis();
+    put(
+        CacheKeys.tokenIdentity(accessToken),
+        new Entry(userId, appId, expiresAt, fromClaim, false),
+        now);
+  }
+
+  /** Records a token xFloor answered with 401, so repeats are refused without a round trip. */
+  public void reject(String accessToken) {
+    if (!settings.isEnabled() || accessToken == null || accessToken.isBlank()) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    put(
+        CacheKeys.tokenIdentity(accessToken),
+        new Entry(null, null, now + settings.getRejectedTtl().toMillis(), false, true),
+        now);
+  }
+
+  public Status check(String accessToken) {
+    if (!settings.isEnabled() || accessToken == null || accessToken.isBlank()) {
+      return Status.UNKNOWN;
+    }
+
+    String key = CacheKeys.tokenIdentity(accessToken);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return Status.UNKNOWN;
+    }
+    if (entry.expiresAtMs <= System.currentTimeMillis()) {
+      entries.remove(key, entry);
+      return entry.fromClaim ? Status.EXPIRED : Status.UNKNOWN;
+    }
+    return entry.rejected ? Status.REJECTED : Status.VALID;
+  }
+
+  /**
+   * Stable key for per-user caching and limits: the app and user a known token was issued for, so
+   * every session of one user shares it, otherwise the token digest.
+   */
+  public String identityKey(String accessToken) {
+    String digest = CacheKeys.tokenIdentity(accessToken);
+    if (!settings.isEnabled() || accessToken == null || accessToken.isBlank()) {
+      return digest;
+    }
+
+    Entry entry = entries.get(digest);
+    if (entry == null
+        || entry.rejected
+        || entry.userId == null
+        || entry.expiresAtMs <= System.currentTimeMillis()) {
+      return digest;
+    }
+    return "user:" + (entry.appId == null ? "" : entry.appId) + "/" + entry.userId;
+  }
+
+  private void put(String key, Entry entry, long now) {
+    if (entries.size() >= settings.getMaxEntries() && !entries.containsKey(key)) {
+      evictExpiredOrAny(now);
+    }
+    entries.put(key, entry);
+  }
+
+  private void evictExpiredOrAny(long now) {
+    entries.values().removeIf(entry -> entry.expiresAtMs <= now);
+
+    // Free a slice rather than one slot so a full map of live tokens is not swept on every put.
+    int target = settings.getMaxEntries() - Math.max(1, settings.getMaxEntries() / 16);
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (entries.size() > target && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  private long expiryClaimMs(String accessToken) {
+    String[] parts = accessToken.trim().split("\\.");
+    if (parts.length != 3) {
+      return -1;
+    }
+
+    try {
+      String payload =
+          new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+      Object claims = gson.fromJson(payload, Object.class);
+      if (claims instanceof Map<?, ?> map && map.get("exp") instanceof Number exp) {
+        return exp.longValue() * 1000;
+      }
+    } catch (RuntimeException ignored) {
+      // Opaque token: fall back to the configured ttl.
+    }
+    return -1;
+  }
+
+  private record Entry(
+      String userId, String appId, long expiresAtMs, boolean fromClaim, boolean rejected) {}
+}
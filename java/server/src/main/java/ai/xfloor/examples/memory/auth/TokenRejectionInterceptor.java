@@ -0,0 +1,28 @@
+package ai.xfloor.examples.memory.auth;
+
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/** Marks a bearer token as bad when xFloor answers a non-auth call with 401. */
+public class TokenRejectionInterceptor implements Interceptor {
+  private static final String AUTH_SERVICE_PATH = "/auth-service/";
+
+  private final TokenIdentityCache tokenIdentityCache;
+
+  public TokenRejectionInterceptor(TokenIdentityCache tokenIdentityCache) {
+    this.tokenIdentityCache = tokenIdentityCache;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    Response response = chain.proceed(request);
+    // A failed sign-in is about the credentials in the body, not the bearer token sent along.
+    if (response.code() == 401 && !request.url().encodedPath().contains(AUTH_SERVICE_PATH)) {
+      tokenIdentityCache.reject(BearerTokens.fromAuthorization(request.header("Authorization")));
+    }
+    return response;
+  }
+}
@@ -0,0 +1,90 @@
+package ai.xfloor.examples.memory.auth;
+
+import ai.xfloor.examples.memory.config.CorsConfig;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import ai.xfloor.memory.client.JSON;
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Answers {@code /memory/*} calls carrying a token that xFloor recently rejected, or whose
+ * {@code exp} has passed, with 401 before the request reaches {@code MemoryController}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class TokenValidationFilter extends OncePerRequestFilter {
+  private final XfloorProperties properties;
+  private final TokenIdentityCache tokenIdentityCache;
+  private final Gson gson;
+  private final Counter rejected;
+  private final Counter expired;
+
+  public TokenValidationFilter(
+      XfloorProperties properties,
+      TokenIdentityCache tokenIdentityCache,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.tokenIdentityCache = tokenIdentityCache;
+    this.gson = JSON.getGson();
+    this.rejected = rejectionCounter(meterRegistry, "rejected");
+    this.expired = rejectionCounter(meterRegistry, "expired");
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!tokenIdentityCache.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+      return true;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !path.startsWith("/memory/") || path.startsWith("/memory/auth/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String token = BearerTokens.fromAuthorization(request.getHeader(HttpHeaders.AUTHORIZATION));
+    switch (tokenIdentityCache.check(token)) {
+      case REJECTED -> {
+        rejected.increment();
+        reject(request, response, "Access token was rejected. Sign in again.");
+      }
+      case EXPIRED -> {
+        expired.increment();
+        reject(request, response, "Access token has expired. Sign in again.");
+      }
+      default -> filterChain.doFilter(request, response);
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, String message)
+      throws IOException {
+    CorsConfig.applyToRejection(request, response, properties);
+    response.setStatus(HttpStatus.UNAUTHORIZED.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.getWriter().write(gson.toJson(Map.of("error", Map.of("message", message))));
+  }
+
+  private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("xfloor.token.rejected")
+        .description("Requests refused locally because of a known-bad bearer token")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,23 @@
+package ai.xfloor.examples.memory.cache;
+
+import java.time.Duration;
+
+/**
+ * Storage behind {@link UpstreamCache}. Every entry is filed under an invalidation key, and
+ * evicting that key drops all of its entries. Values are plain JSON-compatible objects.
+ */
+public interface CacheBackend {
+  Object get(String invalidationKey, String entryKey);
+
+  void put(String invalidationKey, String entryKey, Object value, Duration ttl);
+
+  void evict(String invalidationKey);
+
+  /**
+   * Whether all replicas read the same store. A shared store is evicted once by the replica that
+   * made the write, so invalidations received from peers can skip it.
+   */
+  default boolean isShared() {
+    return false;
+  }
+}
@@ -0,0 +1,29 @@
+package ai.xfloor.examples.memory.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/** Invalidation keys shared by every replica. Cached entries are filed under their floor. */
+public final class CacheKeys {
+  private CacheKeys() {}
+
+  public static String floor(String appId, String floorId) {
+    return "app:" + (appId == null ? "" : appId) + "/floor:" + floorId + "/";
+  }
+
+  /** Stable, non-reversible stand-in for a bearer token inside cache keys. */
+  public static String tokenIdentity(String accessToken) {
+    if (accessToken == null || accessToken.isBlank()) {
+      return "anonymous";
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(accessToken.trim().getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, 12);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
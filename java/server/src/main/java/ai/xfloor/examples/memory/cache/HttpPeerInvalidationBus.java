@@ -0,0 +1,62 @@
+package ai.xfloor.examples.memory.cache;
+
+import com.google.gson.Gson;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Broadcasts invalidations to the other replicas' {@code /internal/cache/invalidate} endpoint.
+ * Delivery is fire-and-forget; cache TTLs bound staleness when a peer is unreachable.
+ */
+public class HttpPeerInvalidationBus extends LoopbackInvalidationBus {
+  public static final String SECRET_HEADER = "X-Xfloor-Cache-Secret";
+  private static final Logger log = LoggerFactory.getLogger(HttpPeerInvalidationBus.class);
+
+  private final List<URI> peers;
+  private final String secret;
+  private final Gson gson;
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+  public HttpPeerInvalidationBus(List<String> peerBaseUrls, String secret, Gson gson) {
+    this.peers =
+        peerBaseUrls.stream()
+            .map(url -> URI.create(url.replaceAll("/+$", "") + "/internal/cache/invalidate"))
+            .toList();
+    this.secret = secret;
+    this.gson = gson;
+  }
+
+  @Override
+  public void publish(List<String> keys) {
+    deliver(keys, false);
+
+    String body = gson.toJson(Map.of("keys", keys));
+    for (URI peer : peers) {
+      HttpRequest request =
+          HttpRequest.newBuilder(peer)
+              .timeout(Duration.ofSeconds(2))
+              .header("Content-Type", "application/json")
+              .header(SECRET_HEADER, secret)
+              .POST(HttpRequest.BodyPublishers.ofString(body))
+              .build();
+      httpClient
+          .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete(
+              (response, error) -> {
+                if (error != null) {
+                  log.warn("Cache invalidation to {} failed: {}", peer, error.toString());
+                } else if (response.statusCode() >= 300) {
+                  log.warn("Cache invalidation to {} returned {}", peer, response.statusCode());
+                }
+              });
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package ai.xfloor.examples.memory.cache;
+
+import java.util.List;
+
+/** Fans invalidation keys out to every replica after a successful write. */
+public interface InvalidationBus {
+  /** Delivers {@code keys} to local listeners and to every peer replica. */
+  void publish(List<String> keys);
+
+  /** Delivers {@code keys} received from a peer to local listeners only. */
+  void receive(List<String> keys);
+
+  void subscribe(Listener listener);
+
+  interface Listener {
+    void onInvalidate(List<String> keys, boolean fromPeer);
+  }
+}
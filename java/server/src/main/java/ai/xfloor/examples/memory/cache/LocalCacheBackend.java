@@ -0,0 +1,59 @@
+package ai.xfloor.examples.memory.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/** In-process backend; also the stand-in for the shared backend in tests and single-node runs. */
+public class LocalCacheBackend implements CacheBackend {
+  private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+  private final int maxEntries;
+
+  public LocalCacheBackend(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public Object get(String invalidationKey, String entryKey) {
+    String key = invalidationKey + entryKey;
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAtMs <= System.currentTimeMillis()) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry.value;
+  }
+
+  @Override
+  public void put(String invalidationKey, String entryKey, Object value, Duration ttl) {
+    String key = invalidationKey + entryKey;
+    if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+      evictExpiredOrAny();
+    }
+    entries.put(key, new Entry(value, System.currentTimeMillis() + ttl.toMillis()));
+  }
+
+  /** Entry keys start with their invalidation key, so one range covers all of them. */
+  @Override
+  public void evict(String invalidationKey) {
+    entries.subMap(invalidationKey, true, invalidationKey + Character.MAX_VALUE, true).clear();
+  }
+
+  private void evictExpiredOrAny() {
+    long now = System.currentTimeMillis();
+    entries.values().removeIf(entry -> entry.expiresAtMs <= now);
+
+    // Free a slice rather than one slot so a full map of live entries is not swept on every put.
+    int target = maxEntries - Math.max(1, maxEntries / 16);
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (entries.size() > target && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  private record Entry(Object value, long expiresAtMs) {}
+}
@@ -0,0 +1,39 @@
+package ai.xfloor.examples.memory.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** In-JVM bus: delivers to local listeners only. Used for single-node runs and tests. */
+public class LoopbackInvalidationBus implements InvalidationBus {
+  private static final Logger log = LoggerFactory.getLogger(LoopbackInvalidationBus.class);
+
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(List<String> keys) {
+    deliver(keys, false);
+  }
+
+  @Override
+  public void receive(List<String> keys) {
+    deliver(keys, true);
+  }
+
+  @Override
+  public void subscribe(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /** Each listener runs on its own, so one failing cache cannot keep the others stale. */
+  protected void deliver(List<String> keys, boolean fromPeer) {
+    for (Listener listener : listeners) {
+      try {
+        listener.onInvalidate(keys, fromPeer);
+      } catch (RuntimeException ex) {
+        log.warn("Cache invalidation listener failed for {}: {}", keys, ex.toString());
+      }
+    }
+  }
+}
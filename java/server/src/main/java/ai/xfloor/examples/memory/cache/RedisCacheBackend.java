@@ -0,0 +1,70 @@
+package ai.xfloor.examples.memory.cache;
+
+import com.google.gson.Gson;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Shared backend so every replica serves hits that any replica loaded. Each entry is also added to
+ * a Redis set per invalidation key, so an eviction deletes exactly the listed entries instead of
+ * scanning the keyspace.
+ */
+public class RedisCacheBackend implements CacheBackend {
+  private static final String NAMESPACE = "xfloor:cache:";
+  private static final String INDEX_NAMESPACE = "xfloor:cache-index:";
+
+  private final StringRedisTemplate redis;
+  private final Gson gson;
+
+  public RedisCacheBackend(StringRedisTemplate redis, Gson gson) {
+    this.redis = redis;
+    this.gson = gson;
+  }
+
+  @Override
+  public Object get(String invalidationKey, String entryKey) {
+    String json = redis.opsForValue().get(NAMESPACE + invalidationKey + entryKey);
+    return json == null ? null : gson.fromJson(json, Object.class);
+  }
+
+  @Override
+  public void put(String invalidationKey, String entryKey, Object value, Duration ttl) {
+    String key = NAMESPACE + invalidationKey + entryKey;
+    String indexKey = INDEX_NAMESPACE + invalidationKey;
+    String json = gson.toJson(value);
+    redis.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations)
+              throws DataAccessException {
+            RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+            ops.opsForValue().set(key, json, ttl);
+            ops.opsForSet().add(indexKey, key);
+            // Every entry shares one ttl, so the newest entry always outlives the others.
+            ops.expire(indexKey, ttl);
+            return null;
+          }
+        });
+  }
+
+  @Override
+  public void evict(String invalidationKey) {
+    String indexKey = INDEX_NAMESPACE + invalidationKey;
+    Set<String> members = redis.opsForSet().members(indexKey);
+    List<String> keys = new ArrayList<>(members == null ? List.of() : members);
+    keys.add(indexKey);
+    redis.delete(keys);
+  }
+
+  @Override
+  public boolean isShared() {
+    return true;
+  }
+}
@@ -0,0 +1,93 @@
+package ai.xfloor.examples.memory.cache;
+
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived cache for read-only xFloor responses. Writes publish invalidation keys on the
+ * {@link InvalidationBus} so every replica drops the affected entries. A failing backend is
+ * logged and bypassed, so reads fall through to xFloor and writes still succeed.
+ */
+@Component
+public class UpstreamCache {
+  private static final Logger log = LoggerFactory.getLogger(UpstreamCache.class);
+
+  private final XfloorProperties.Cache settings;
+  private final CacheBackend backend;
+  private final InvalidationBus bus;
+
+  public UpstreamCache(XfloorProperties properties, CacheBackend backend, InvalidationBus bus) {
+    this.settings = properties.getCache();
+    this.backend = backend;
+    this.bus = bus;
+    bus.subscribe(
+        (keys, fromPeer) -> {
+          // The replica that made the write already evicted a shared backend.
+          if (fromPeer && backend.isShared()) {
+            return;
+          }
+          for (String key : keys) {
+            try {
+              backend.evict(key);
+            } catch (RuntimeException ex) {
+              log.warn("Cache eviction of {} failed: {}", key, ex.toString());
+            }
+          }
+        });
+  }
+
+  /** Returns the value cached under {@code invalidationKey}, loading it on a miss. */
+  public Object getOrLoad(String invalidationKey, String entryKey, Loader loader)
+      throws Exception {
+    if (!settings.isEnabled()) {
+      return loader.load();
+    }
+
+    Object cached = null;
+    try {
+      cached = backend.get(invalidationKey, entryKey);
+    } catch (RuntimeException ex) {
+      log.warn("Cache read of {} failed: {}", invalidationKey, ex.toString());
+    }
+    if (cached != null) {
+      return cached;
+    }
+
+    Object loaded = loader.load();
+    if (loaded != null) {
+      try {
+        backend.put(invalidationKey, entryKey, loaded, ttl());
+      } catch (RuntimeException ex) {
+        log.warn("Cache write of {} failed: {}", invalidationKey, ex.toString());
+      }
+    }
+    return loaded;
+  }
+
+  /** Called after a successful write, so failures are logged rather than failing the request. */
+  public void invalidateFloor(String appId, String floorId) {
+    publish(List.of(CacheKeys.floor(appId, floorId)));
+  }
+
+  private void publish(List<String> keys) {
+    try {
+      bus.publish(keys);
+    } catch (RuntimeException ex) {
+      // Entries that were not evicted still expire after the ttl.
+      log.warn("Cache invalidation of {} failed: {}", keys, ex.toString());
+    }
+  }
+
+  private Duration ttl() {
+    return settings.getTtl() == null ? Duration.ofSeconds(15) : settings.getTtl();
+  }
+
+  @FunctionalInterface
+  public interface Loader {
+    Object load() throws Exception;
+  }
+}
@@ -0,0 +1,51 @@
+package ai.xfloor.examples.memory.config;
+
+import ai.xfloor.examples.memory.cache.CacheBackend;
+import ai.xfloor.examples.memory.cache.HttpPeerInvalidationBus;
+import ai.xfloor.examples.memory.cache.InvalidationBus;
+import ai.xfloor.examples.memory.cache.LocalCacheBackend;
+import ai.xfloor.examples.memory.cache.LoopbackInvalidationBus;
+import ai.xfloor.examples.memory.cache.RedisCacheBackend;
+import ai.xfloor.memory.client.JSON;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class CacheConfig {
+  @Bean
+  public CacheBackend cacheBackend(
+      XfloorProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate) {
+    XfloorProperties.Cache cache = properties.getCache();
+    String backend = cache.getBackend() == null ? "local" : cache.getBackend().trim();
+
+    if ("redis".equals(backend.toLowerCase(Locale.ROOT))) {
+      return new RedisCacheBackend(redisTemplate.getObject(), JSON.getGson());
+    }
+    return new LocalCacheBackend(cache.getMaxEntries());
+  }
+
+  @Bean
+  public InvalidationBus invalidationBus(XfloorProperties properties) {
+    XfloorProperties.Cache cache = properties.getCache();
+    List<String> peers =
+        Arrays.stream(cache.getPeers().split(","))
+            .map(String::trim)
+            .filter(peer -> !peer.isEmpty())
+            .toList();
+
+    if (peers.isEmpty()) {
+      return new LoopbackInvalidationBus();
+    }
+    if (cache.getPeerSecret() == null || cache.getPeerSecret().isBlank()) {
+      // Peers refuse a blank secret, so every invalidation would fail quietly.
+      throw new IllegalStateException(
+          "xfloor.cache.peer-secret must be set when xfloor.cache.peers is configured");
+    }
+    return new HttpPeerInvalidationBus(peers, cache.getPeerSecret(), JSON.getGson());
+  }
+}
@@ -1,7 +1,10 @@
 package ai.xfloor.examples.memory.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -22,5 +25,18 @@ public class CorsConfig {
       }
     };
   }
-}
 
+  /**
+   * CORS headers for responses written by a servlet filter. Spring MVC adds them further down the
+   * chain, which a request rejected in a filter never reaches.
+   */
+  public static void applyToRejection(
+      HttpServletRequest request, HttpServletResponse response, XfloorProperties properties) {
+    String origin = request.getHeader(HttpHeaders.ORIGIN);
+    if (origin != null && properties.getCorsAllowedOriginsList().contains(origin)) {
+      response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+      response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package ai.xfloor.examples.memory.config;
+
+import ai.xfloor.examples.memory.tracing.FileSpanExporter;
+import ai.xfloor.memory.client.JSON;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+  @Bean
+  public OpenTelemetry openTelemetry(XfloorProperties properties) throws IOException {
+    XfloorProperties.Tracing tracing = properties.getTracing();
+    String exporter = tracing.getExporter() == null ? "none" : tracing.getExporter().trim();
+    String exporterName = exporter.toLowerCase(Locale.ROOT);
+    if (!tracing.isEnabled() || exporterName.equals("none")) {
+      return OpenTelemetry.noop();
+    }
+
+    SpanExporter spanExporter =
+        switch (exporterName) {
+          case "otlp" ->
+              OtlpHttpSpanExporter.builder().setEndpoint(tracing.getOtlpEndpoint()).build();
+          case "file" -> new FileSpanExporter(JSON.getGson(), Path.of(tracing.getFile().trim()));
+          default -> throw new IllegalArgumentException(
+              "Unsupported xfloor.tracing.exporter: " + exporter);
+        };
+
+    Attributes serviceAttributes =
+        Attributes.of(AttributeKey.stringKey("service.name"), tracing.getServiceName());
+    Resource resource = Resource.getDefault().merge(Resource.create(serviceAttributes));
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder()
+            .setResource(resource)
+            .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(tracing.getSampleRatio())))
+            .addSpanProcessor(BatchSpanProcessor.builder(spanExporter).build())
+            .build();
+
+    return OpenTelemetrySdk.builder()
+        .setTracerProvider(tracerProvider)
+        .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+        .build();
+  }
+}
@@ -1,5 +1,6 @@
 package ai.xfloor.examples.memory.config;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -12,6 +13,15 @@ public class XfloorProperties {
   private String sslCaCert = "";
   private String corsAllowedOrigins =
       "http://localhost:3000,http://127.0.0.1:3000,http://localhost:5173,http://127.0.0.1:5173";
+  private final Capture capture = new Capture();
+  private final RecentIndex recentIndex = new RecentIndex();
+  private final RateLimit rateLimit = new RateLimit();
+  private final Cache cache = new Cache();
+  private final Tracing tracing = new Tracing();
+  private final AccessLog accessLog = new AccessLog();
+  private final Media media = new Media();
+  private final Transport transport = new Transport();
+  private final TokenCache tokenCache = new TokenCache();
 
   public String getApiBaseUrl() {
     return apiBaseUrl;
@@ -45,6 +55,42 @@ public class XfloorProperties {
     this.corsAllowedOrigins = corsAllowedOrigins;
   }
 
+  public Capture getCapture() {
+    return capture;
+  }
+
+  public RecentIndex getRecentIndex() {
+    return recentIndex;
+  }
+
+  public RateLimit getRateLimit() {
+    return rateLimit;
+  }
+
+  public Cache getCache() {
+    return cache;
+  }
+
+  public Tracing getTracing() {
+    return tracing;
+  }
+
+  public AccessLog getAccessLog() {
+    return accessLog;
+  }
+
+  public Media getMedia() {
+    return media;
+  }
+
+  public Transport getTransport() {
+    return transport;
+  }
+
+  public TokenCache getTokenCache() {
+    return tokenCache;
+  }
+
   public boolean isVerifySslEnabled() {
     String normalized = verifySsl == null ? "true" : verifySsl.trim().toLowerCase(Locale.ROOT);
     return !normalized.equals("0")
@@ -66,5 +112,483 @@ public class XfloorProperties {
 
     return List.of("http://localhost:3000", "http://127.0.0.1:3000");
   }
-}
 
+  /** Record/replay of upstream xFloor exchanges, used for offline regression runs. */
+  public static class Capture {
+    private String mode = "off";
+    private String file = "xfloor-capture.jsonl";
+    private double replaySpeed = 1.0;
+    private int maxBodyBytes = 4 * 1024 * 1024;
+
+    public String getMode() {
+      return mode;
+    }
+
+    public void setMode(String mode) {
+      this.mode = mode;
+    }
+
+    public String getFile() {
+      return file;
+    }
+
+    public void setFile(String file) {
+      this.file = file;
+    }
+
+    public double getReplaySpeed() {
+      return replaySpeed;
+    }
+
+    public void setReplaySpeed(double replaySpeed) {
+      this.replaySpeed = replaySpeed;
+    }
+
+    public int getMaxBodyBytes() {
+      return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+      this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public boolean isRecording() {
+      return "record".equals(normalizedMode());
+    }
+
+    public boolean isReplaying() {
+      return "replay".equals(normalizedMode());
+    }
+
+    private String normalizedMode() {
+      return mode == null ? "off" : mode.trim().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /** Local search index over recent events, see {@code /memory/recent-events/search}. */
+  public static class RecentIndex {
+    private boolean enabled = true;
+    private int maxFloors = 1000;
+    private int maxEventsPerFloor = 500;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxFloors() {
+      return maxFloors;
+    }
+
+    public void setMaxFloors(int maxFloors) {
+      this.maxFloors = maxFloors;
+    }
+
+    public int getMaxEventsPerFloor() {
+      return maxEventsPerFloor;
+    }
+
+    public void setMaxEventsPerFloor(int maxEventsPerFloor) {
+      this.maxEventsPerFloor = maxEventsPerFloor;
+    }
+  }
+
+  /** Token-bucket limits applied to auth and query endpoints, one bucket per key. */
+  public static class RateLimit {
+    private boolean enabled = true;
+    private int maxKeys = 100_000;
+    private int maxBodyBytes = 64 * 1024;
+    private final Limit ip = new Limit(20, 40);
+    private final Limit app = new Limit(200, 400);
+    private final Limit token = new Limit(10, 20);
+    private final Limit account = new Limit(0.1, 5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxKeys() {
+      return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+      this.maxKeys = maxKeys;
+    }
+
+    /** Larger bodies on limited endpoints are refused with 413 before they are buffered. */
+    public int getMaxBodyBytes() {
+      return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+      this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public Limit getIp() {
+      return ip;
+    }
+
+    public Limit getApp() {
+      return app;
+    }
+
+    public Limit getToken() {
+      return token;
+    }
+
+    /** Keyed by {@code email_id} / {@code mobile_number} on auth endpoints. */
+    public Limit getAccount() {
+      return account;
+    }
+
+    public static class Limit {
+      private double permitsPerSecond;
+      private int burst;
+
+      public Limit() {}
+
+      Limit(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+      }
+
+      public double getPermitsPerSecond() {
+        return permitsPerSecond;
+      }
+
+      public void setPermitsPerSecond(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+      }
+
+      public int getBurst() {
+        return burst;
+      }
+
+      public void setBurst(int burst) {
+        this.burst = burst;
+      }
+
+      public boolean isEnabled() {
+        return permitsPerSecond > 0;
+      }
+    }
+  }
+
+  /** Read-through cache for floor info and recent events, invalidated across replicas. */
+  public static class Cache {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(15);
+    private int maxEntries = 10_000;
+    private String backend = "local";
+    private String peers = "";
+    private String peerSecret = "";
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+      return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
+    public String getBackend() {
+      return backend;
+    }
+
+    public void setBackend(String backend) {
+      this.backend = backend;
+    }
+
+    public String getPeers() {
+      return peers;
+    }
+
+    public void setPeers(String peers) {
+      this.peers = peers;
+    }
+
+    public String getPeerSecret() {
+      return peerSecret;
+    }
+
+    public void setPeerSecret(String peerSecret) {
+      this.peerSecret = peerSecret;
+    }
+  }
+
+  /** OpenTelemetry spans for inbound endpoints and outbound xFloor calls. */
+  public static class Tracing {
+    private boolean enabled = true;
+    private String exporter = "none";
+    private double sampleRatio = 0.1;
+    private String otlpEndpoint = "http://localhost:4318/v1/traces";
+    private String file = "xfloor-traces.jsonl";
+    private String serviceName = "memory-java-server";
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /** {@code none}, {@code otlp} (OTLP over HTTP) or {@code file} (JSON lines). */
+    public String getExporter() {
+      return exporter;
+    }
+
+    public void setExporter(String exporter) {
+      this.exporter = exporter;
+    }
+
+    public double getSampleRatio() {
+      return sampleRatio;
+    }
+
+    public void setSampleRatio(double sampleRatio) {
+      this.sampleRatio = sampleRatio;
+    }
+
+    public String getOtlpEndpoint() {
+      return otlpEndpoint;
+    }
+
+    public void setOtlpEndpoint(String otlpEndpoint) {
+      this.otlpEndpoint = otlpEndpoint;
+    }
+
+    public String getFile() {
+      return file;
+    }
+
+    public void setFile(String file) {
+      this.file = file;
+    }
+
+    public String getServiceName() {
+      return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+      this.serviceName = serviceName;
+    }
+  }
+
+  /** Asynchronous structured access log written to the {@code xfloor.access} logger. */
+  public static class AccessLog {
+    private boolean enabled = true;
+    private int bufferSize = 8192;
+    private int maxBodyChars = 512;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+      return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
+    public int getMaxBodyChars() {
+      return maxBodyChars;
+    }
+
+    public void setMaxBodyChars(int maxBodyChars) {
+      this.maxBodyChars = maxBodyChars;
+    }
+  }
+
+  /** Image downscaling and re-encoding applied to uploads before they are sent to xFloor. */
+  public static class Media {
+    private boolean enabled = false;
+    private int maxDimension = 2048;
+    private float jpegQuality = 0.82f;
+    private long minBytes = 256 * 1024;
+    private int workerThreads = 0;
+    private int queueCapacity = 64;
+    private Duration timeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxDimension() {
+      return maxDimension;
+    }
+
+    public void setMaxDimension(int maxDimension) {
+      this.maxDimension = maxDimension;
+    }
+
+    public float getJpegQuality() {
+      return jpegQuality;
+    }
+
+    public void setJpegQuality(float jpegQuality) {
+      this.jpegQuality = jpegQuality;
+    }
+
+    /** Uploads smaller than this are forwarded untouched. */
+    public long getMinBytes() {
+      return minBytes;
+    }
+
+    public void setMinBytes(long minBytes) {
+      this.minBytes = minBytes;
+    }
+
+    /** {@code 0} uses half the available processors. */
+    public int getWorkerThreads() {
+      return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+      this.workerThreads = workerThreads;
+    }
+
+    public int getQueueCapacity() {
+      return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTimeout() {
+      return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+      this.timeout = timeout;
+    }
+  }
+
+  /** Connection settings for the shared OkHttp client used for every xFloor call. */
+  public static class Transport {
+    private String http2 = "auto";
+    private boolean gzipRequests = false;
+    private long gzipThresholdBytes = 1024;
+    private int maxIdleConnections = 32;
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    /**
+     * {@code auto} negotiates HTTP/2 over TLS, {@code prior-knowledge} speaks cleartext HTTP/2 (for
+     * a local stub) and {@code off} forces HTTP/1.1.
+     */
+    public String getHttp2() {
+      return http2;
+    }
+
+    public void setHttp2(String http2) {
+      this.http2 = http2;
+    }
+
+    public boolean isGzipRequests() {
+      return gzipRequests;
+    }
+
+    public void setGzipRequests(boolean gzipRequests) {
+      this.gzipRequests = gzipRequests;
+    }
+
+    public long getGzipThresholdBytes() {
+      return gzipThresholdBytes;
+    }
+
+    public void setGzipThresholdBytes(long gzipThresholdBytes) {
+      this.gzipThresholdBytes = gzipThresholdBytes;
+    }
+
+    public int getMaxIdleConnections() {
+      return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+      this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public Duration getKeepAlive() {
+      return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+      this.keepAlive = keepAlive;
+    }
+  }
+
+  /** Local memo of bearer tokens issued by sign-in/sign-up and of tokens xFloor rejected. */
+  public static class TokenCache {
+    private boolean enabled = true;
+    private int maxEntries = 50000;
+    private Duration ttl = Duration.ofHours(12);
+    private Duration rejectedTtl = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+      return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
+    /** Lifetime of an issued token that carries no {@code exp} claim of its own. */
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+
+    public Duration getRejectedTtl() {
+      return rejectedTtl;
+    }
+
+    public void setRejectedTtl(Duration rejectedTtl) {
+      this.rejectedTtl = rejectedTtl;
+    }
+  }
+}
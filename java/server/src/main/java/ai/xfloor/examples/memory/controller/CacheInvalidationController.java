@@ -0,0 +1,58 @@
+package ai.xfloor.examples.memory.controller;
+
+import ai.xfloor.examples.memory.cache.HttpPeerInvalidationBus;
+import ai.xfloor.examples.memory.cache.InvalidationBus;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Receives cache invalidations broadcast by peer replicas. */
+@RestController
+public class CacheInvalidationController {
+  private final XfloorProperties properties;
+  private final InvalidationBus invalidationBus;
+
+  public CacheInvalidationController(
+      XfloorProperties properties, InvalidationBus invalidationBus) {
+    this.properties = properties;
+    this.invalidationBus = invalidationBus;
+  }
+
+  @PostMapping("/internal/cache/invalidate")
+  public ResponseEntity<Object> invalidate(
+      @RequestBody Map<String, Object> payload,
+      @RequestHeader(value = HttpPeerInvalidationBus.SECRET_HEADER, required = false)
+          String secret) {
+    String expected = properties.getCache().getPeerSecret();
+    if (expected == null
+        || expected.isBlank()
+        || secret == null
+        || !MessageDigest.isEqual(
+            expected.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    List<String> keys = new ArrayList<>();
+    if (payload.get("keys") instanceof List<?> rawKeys) {
+      for (Object key : rawKeys) {
+        if (key != null && !String.valueOf(key).isBlank()) {
+          keys.add(String.valueOf(key));
+        }
+      }
+    }
+
+    if (!keys.isEmpty()) {
+      invalidationBus.receive(keys);
+    }
+    return ResponseEntity.noContent().build();
+  }
+}
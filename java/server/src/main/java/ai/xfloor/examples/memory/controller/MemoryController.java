@@ -1,6 +1,14 @@
 package ai.xfloor.examples.memory.controller;
 
-import ai.xfloor.examples.memory.config.XfloorProperties;
+import ai.xfloor.examples.memory.accesslog.AccessLogContext;
+import ai.xfloor.examples.memory.auth.BearerTokens;
+import ai.xfloor.examples.memory.auth.TokenIdentityCache;
+import ai.xfloor.examples.memory.cache.CacheKeys;
+import ai.xfloor.examples.memory.cache.UpstreamCache;
+import ai.xfloor.examples.memory.media.ImagePipeline;
+import ai.xfloor.examples.memory.search.RecentEventIndex;
+import ai.xfloor.examples.memory.tracing.RequestTracer;
+import ai.xfloor.examples.memory.upstream.XfloorClientFactory;
 import ai.xfloor.memory.api.AuthApi;
 import ai.xfloor.memory.api.EventApi;
 import ai.xfloor.memory.api.FloorApi;
@@ -23,9 +31,6 @@ import ai.xfloor.memory.model.SignUp200Response;
 import com.google.gson.Gson;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -33,8 +38,6 @@ import java.util.Locale;
 import java.util.Map;
 import javax.net.ssl.SSLException;
 import okhttp3.Call;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -51,12 +54,27 @@ import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 public class MemoryController {
-  private static final Logger log = LoggerFactory.getLogger(MemoryController.class);
-  private final XfloorProperties properties;
+  private final XfloorClientFactory clientFactory;
+  private final RecentEventIndex recentEventIndex;
+  private final UpstreamCache upstreamCache;
+  private final RequestTracer tracer;
+  private final ImagePipeline imagePipeline;
+  private final TokenIdentityCache tokenIdentityCache;
   private final Gson gson;
 
-  public MemoryController(XfloorProperties properties) {
-    this.properties = properties;
+  public MemoryController(
+      XfloorClientFactory clientFactory,
+      RecentEventIndex recentEventIndex,
+      UpstreamCache upstreamCache,
+      RequestTracer tracer,
+      ImagePipeline imagePipeline,
+      TokenIdentityCache tokenIdentityCache) {
+    this.clientFactory = clientFactory;
+    this.recentEventIndex = recentEventIndex;
+    this.upstreamCache = upstreamCache;
+    this.tracer = tracer;
+    this.imagePipeline = imagePipeline;
+    this.tokenIdentityCache = tokenIdentityCache;
     this.gson = JSON.getGson();
   }
 
@@ -69,10 +87,11 @@ public class MemoryController {
   public ResponseEntity<Object> query(
       @RequestBody Map<String, Object> payload,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       QueryRequest request = buildQueryRequest(payload);
+      AccessLogContext.current().app(request.getAppId());
       QueryApi api = new QueryApi(createClient(accessToken));
       QueryResponse response = api.query(request);
       return ResponseEntity.ok(toPlain(response));
@@ -89,16 +108,23 @@ public class MemoryController {
       @RequestParam("app_id") String appId,
       @RequestPart(value = "files", required = false) List<MultipartFile> files,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
     List<File> tempFiles = new ArrayList<>();
 
     try {
-      tempFiles = toTempFiles(files);
+      tempFiles = tracer.inSpan("upload.temp_files", () -> toTempFiles(files));
       ApiClient client = createClient(accessToken);
       EventApi api = new EventApi(client);
       String userId = extractUserIdFromInputInfo(inputInfo);
       EventResponse response =
           api.event(inputInfo, appId, userId, tempFiles.isEmpty() ? null : tempFiles);
+      if (parseJson(inputInfo) instanceof Map<?, ?> inputInfoMap) {
+        String floorId = asNonBlankString(inputInfoMap.get("floor_id"));
+        if (floorId != null) {
+          upstreamCache.invalidateFloor(appId, floorId);
+        }
+        recentEventIndex.recordCreated(appId, toStringKeyMap(inputInfoMap));
+      }
       return ResponseEntity.ok(toPlain(response));
     } catch (ApiException ex) {
       return sdkExceptionResponse(ex);
@@ -115,12 +141,61 @@ public class MemoryController {
       @RequestParam("app_id") String appId,
       @RequestParam(value = "user_id", required = false) String userId,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
-      EventApi api = new EventApi(createClient(accessToken));
-      GetRecentEvents200Response response = api.getRecentEvents(floorId, appId, userId);
-      return ResponseEntity.ok(toPlain(response));
+      return ResponseEntity.ok(loadRecentEvents(floorId, appId, userId, accessToken));
+    } catch (ApiException ex) {
+      return sdkExceptionResponse(ex);
+    } catch (Exception ex) {
+      return unexpectedExceptionResponse(ex);
+    }
+  }
+
+  @GetMapping("/memory/recent-events/search")
+  public ResponseEntity<Object> searchRecentEvents(
+      @RequestParam("floor_id") String floorId,
+      @RequestParam("app_id") String appId,
+      @RequestParam(value = "user_id", required = false) String userId,
+      @RequestParam(value = "q", required = false) String query,
+      @RequestParam(value = "tags", required = false) String tags,
+      @RequestParam(value = "time_from_ms", required = false) Long timeFromMs,
+      @RequestParam(value = "time_to_ms", required = false) Long timeToMs,
+      @RequestParam(value = "limit", defaultValue = "50") int limit,
+      @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+    String accessToken = BearerTokens.fromAuthorization(authorization);
+
+    try {
+      if (!recentEventIndex.isEnabled()) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(buildError("Recent event search is disabled.", null));
+      }
+
+      // The index is shared by every caller of a floor view, so each search is first authorized by
+      // xFloor through the same per-caller cache entry /memory/recent-events uses.
+      Object recentEvents = loadRecentEvents(floorId, appId, userId, accessToken);
+      if (!recentEventIndex.contains(appId, floorId, userId)) {
+        recentEventIndex.ingest(appId, floorId, userId, recentEvents);
+      }
+
+      List<Map<String, Object>> items =
+          recentEventIndex.search(
+              appId,
+              floorId,
+              userId,
+              splitTerms(query, "[^\\p{L}\\p{N}]+"),
+              splitTerms(tags, ","),
+              timeFromMs,
+              timeToMs,
+              limit);
+      if (items == null) {
+        items = List.of();
+      }
+
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("post_count", String.valueOf(items.size()));
+      body.put("items", items);
+      return ResponseEntity.ok(body);
     } catch (ApiException ex) {
       return sdkExceptionResponse(ex);
     } catch (Exception ex) {
@@ -134,26 +209,20 @@ public class MemoryController {
       @RequestParam("app_id") String appId,
       @RequestParam(value = "user_id", required = false) String userId,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
-    log.info(
-        "Incoming /memory/floors request floorId={} appId={} userId={} token={}",
-        floorId,
-        appId,
-        userId,
-        maskToken(accessToken));
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
-      FloorApi api = new FloorApi(createClient(accessToken));
-      FloorInfo response = api.getFloorInformation(floorId, appId, userId);
-      return ResponseEntity.ok(toPlain(response));
+      Object body =
+          upstreamCache.getOrLoad(
+              CacheKeys.floor(appId, floorId),
+              "info|" + userId + "|" + tokenIdentityCache.identityKey(accessToken),
+              () -> {
+                FloorApi api = new FloorApi(createClient(accessToken));
+                FloorInfo response = api.getFloorInformation(floorId, appId, userId);
+                return toPlain(response);
+              });
+      return ResponseEntity.ok(body);
     } catch (ApiException ex) {
-      log.warn(
-          "xFloor floor info failed code={} floorId={} appId={} userId={} body={}",
-          ex.getCode(),
-          floorId,
-          appId,
-          userId,
-          ex.getResponseBody());
       return sdkExceptionResponse(ex);
     } catch (Exception ex) {
       return unexpectedExceptionResponse(ex);
@@ -169,13 +238,14 @@ public class MemoryController {
       @RequestParam(value = "details", required = false) String details,
       @RequestPart(value = "logo_file", required = false) MultipartFile logoFile,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
     File logoTempFile = null;
 
     try {
-      logoTempFile = toTempFile(logoFile);
+      logoTempFile = tracer.inSpan("upload.temp_files", () -> toTempFile(logoFile));
       FloorApi api = new FloorApi(createClient(accessToken));
       EditFloor200Response response = api.editFloor(floorId, userId, appId, logoTempFile, title, details);
+      upstreamCache.invalidateFloor(appId, floorId);
       return ResponseEntity.ok(toPlain(response));
     } catch (ApiException ex) {
       return sdkExceptionResponse(ex);
@@ -191,7 +261,7 @@ public class MemoryController {
       @RequestParam(value = "user_id", required = false) String userId,
       @RequestParam(value = "thread_id", required = false) String threadId,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       ApiClient client = createClient(accessToken);
@@ -209,7 +279,7 @@ public class MemoryController {
       @RequestParam("user_id") String userId,
       @RequestParam("floor_id") String floorId,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       ApiClient client = createClient(accessToken);
@@ -226,7 +296,7 @@ public class MemoryController {
   public ResponseEntity<Object> signUp(
       @RequestBody Map<String, Object> payload,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       String name = requiredString(payload, "name");
@@ -234,6 +304,7 @@ public class MemoryController {
       String emailId = optionalString(payload, "email_id");
       String mobileNumber = optionalString(payload, "mobile_number");
       String appId = optionalString(payload, "app_id");
+      AccessLogContext.current().app(appId);
 
       AuthApi api = new AuthApi(createClient(accessToken));
       ApiResponse<SignUp200Response> response =
@@ -241,6 +312,7 @@ public class MemoryController {
 
       String authHeader = extractAuthorizationHeader(response.getHeaders());
       Object responseBody = attachToken(toPlain(response.getData()), authHeader);
+      rememberToken(responseBody, authHeader, appId);
       return successResponseWithAuth(response.getStatusCode(), responseBody, authHeader);
     } catch (ApiException ex) {
       return sdkExceptionResponse(ex);
@@ -253,13 +325,14 @@ public class MemoryController {
   public ResponseEntity<Object> signInWithEmail(
       @RequestBody Map<String, Object> payload,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       String emailId = requiredString(payload, "email_id");
       String passCode = requiredString(payload, "pass_code");
       String loginType = requiredString(payload, "login_type");
       String appId = optionalString(payload, "app_id");
+      AccessLogContext.current().app(appId);
 
       AuthApi api = new AuthApi(createClient(accessToken));
       ApiResponse<SignInResponse> response =
@@ -267,6 +340,7 @@ public class MemoryController {
 
       String authHeader = extractAuthorizationHeader(response.getHeaders());
       Object responseBody = attachToken(toPlain(response.getData()), authHeader);
+      rememberToken(responseBody, authHeader, appId);
       return successResponseWithAuth(response.getStatusCode(), responseBody, authHeader);
     } catch (ApiException ex) {
       return sdkExceptionResponse(ex);
@@ -279,13 +353,14 @@ public class MemoryController {
   public ResponseEntity<Object> signInWithMobile(
       @RequestBody Map<String, Object> payload,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       String mobileNumber = requiredString(payload, "mobile_number");
       String passCode = requiredString(payload, "pass_code");
       String loginType = requiredString(payload, "login_type");
       String appId = optionalString(payload, "app_id");
+      AccessLogContext.current().app(appId);
 
       AuthApi api = new AuthApi(createClient(accessToken));
       ApiResponse<SignInResponse> response =
@@ -293,6 +368,7 @@ public class MemoryController {
 
       String authHeader = extractAuthorizationHeader(response.getHeaders());
       Object responseBody = attachToken(toPlain(response.getData()), authHeader);
+      rememberToken(responseBody, authHeader, appId);
       return successResponseWithAuth(response.getStatusCode(), responseBody, authHeader);
     } catch (ApiException ex) {
       return sdkExceptionResponse(ex);
@@ -305,7 +381,7 @@ public class MemoryController {
   public ResponseEntity<Object> sendValidationCode(
       @RequestBody Map<String, Object> payload,
       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
-    String accessToken = extractAccessToken(authorization);
+    String accessToken = BearerTokens.fromAuthorization(authorization);
 
     try {
       String mode = requiredString(payload, "mode");
@@ -313,6 +389,7 @@ public class MemoryController {
       String emailId = optionalString(payload, "email_id");
       String mobileNumber = optionalString(payload, "mobile_number");
       String appId = optionalString(payload, "app_id");
+      AccessLogContext.current().app(appId);
 
       AuthApi api = new AuthApi(createClient(accessToken));
       SendValidationCode200Response response =
@@ -325,23 +402,23 @@ public class MemoryController {
     }
   }
 
-  private ApiClient createClient(String accessToken) throws IOException {
-    ApiClient client = new ApiClient();
-    client.setBasePath(properties.getApiBaseUrl());
-    client.setVerifyingSsl(properties.isVerifySslEnabled());
-
-    String caCertPath = properties.getSslCaCert();
-    if (caCertPath != null && !caCertPath.isBlank()) {
-      try (InputStream caCert = Files.newInputStream(Path.of(caCertPath.trim()))) {
-        client.setSslCaCert(caCert);
-      }
-    }
-
-    if (accessToken != null && !accessToken.isBlank()) {
-      client.setBearerToken(accessToken);
-    }
+  private ApiClient createClient(String accessToken) {
+    return tracer.inSpan("xfloor.client.create", () -> clientFactory.create(accessToken));
+  }
 
-    return client;
+  /** Recent events through the shared cache; fresh upstream responses also feed the index. */
+  private Object loadRecentEvents(String floorId, String appId, String userId, String accessToken)
+      throws Exception {
+    return upstreamCache.getOrLoad(
+        CacheKeys.floor(appId, floorId),
+        "recent|" + userId + "|" + tokenIdentityCache.identityKey(accessToken),
+        () -> {
+          EventApi api = new EventApi(createClient(accessToken));
+          GetRecentEvents200Response response = api.getRecentEvents(floorId, appId, userId);
+          Object body = toPlain(response);
+          recentEventIndex.ingest(appId, floorId, userId, body);
+          return body;
+        });
   }
 
   private Object getConversations(ApiClient apiClient, String userId, String threadId)
@@ -438,36 +515,6 @@ public class MemoryController {
         .filterTags(filterTags);
   }
 
-  private String extractAccessToken(String authorization) {
-    if (authorization == null) {
-      return null;
-    }
-
-    String value = authorization.trim();
-    if (value.isEmpty()) {
-      return null;
-    }
-
-    if (value.toLowerCase(Locale.ROOT).startsWith("bearer ")) {
-      String token = value.substring(7).trim();
-      return token.isEmpty() ? null : token;
-    }
-
-    return value;
-  }
-
-  private String maskToken(String token) {
-    if (token == null || token.isBlank()) {
-      return null;
-    }
-
-    String value = token.trim();
-    if (value.length() <= 14) {
-      return "***";
-    }
-    return value.substring(0, 8) + "..." + value.substring(value.length() - 6);
-  }
-
   private String extractAuthorizationHeader(Map<String, List<String>> headers) {
     if (headers == null) {
       return null;
@@ -506,7 +553,7 @@ public class MemoryController {
       return body;
     }
 
-    String token = extractAccessToken(authorizationHeader);
+    String token = BearerTokens.fromAuthorization(authorizationHeader);
     if (token == null) {
       return body;
     }
@@ -516,7 +563,26 @@ public class MemoryController {
     return mutableBody;
   }
 
+  /** Records the issued token against its user so later calls can be checked and keyed locally. */
+  private void rememberToken(Object body, String authorizationHeader, String appId) {
+    String token = BearerTokens.fromAuthorization(authorizationHeader);
+    if (token == null || !(body instanceof Map<?, ?> map)) {
+      return;
+    }
+
+    Object userId = map.get("user_id");
+    if (userId == null && map.get("profile") instanceof Map<?, ?> profile) {
+      userId = profile.get("user_id");
+    }
+    Object issuedFor = appId != null ? appId : map.get("app_id");
+    tokenIdentityCache.remember(
+        token,
+        userId == null ? null : String.valueOf(userId),
+        issuedFor == null ? null : String.valueOf(issuedFor));
+  }
+
   private ResponseEntity<Object> sdkExceptionResponse(ApiException ex) {
+    AccessLogContext.current().upstreamError(ex.getResponseBody());
     int status = ex.getCode() > 0 ? ex.getCode() : HttpStatus.BAD_GATEWAY.value();
     Object parsedBody = parseJson(ex.getResponseBody());
     String message = extractMessage(parsedBody, "xFloor SDK request failed");
@@ -566,7 +632,8 @@ public class MemoryController {
     if (value == null) {
       return null;
     }
-    return gson.fromJson(gson.toJson(value), Object.class);
+    return tracer.inSpan(
+        "serialize.to_plain", () -> gson.fromJson(gson.toJson(value), Object.class));
   }
 
   private Object parseJson(String value) {
@@ -654,6 +721,21 @@ public class MemoryController {
     return normalized;
   }
 
+  private List<String> splitTerms(String value, String separator) {
+    if (value == null || value.isBlank()) {
+      return List.of();
+    }
+
+    List<String> terms = new ArrayList<>();
+    for (String term : value.split(separator)) {
+      String normalized = asNonBlankString(term);
+      if (normalized != null) {
+        terms.add(normalized);
+      }
+    }
+    return terms;
+  }
+
   private Map<String, Object> optionalMap(Map<String, Object> payload, String key) {
     Object value = payload.get(key);
     if (!(value instanceof Map<?, ?> rawMap)) {
@@ -707,7 +789,9 @@ public class MemoryController {
 
     String suffix = fileSuffix(multipartFile.getOriginalFilename());
     File tempFile = File.createTempFile("xfloor-upload-", suffix);
-    multipartFile.transferTo(tempFile);
+    if (!imagePipeline.transcode(multipartFile, tempFile)) {
+      multipartFile.transferTo(tempFile);
+    }
     return tempFile;
   }
 
@@ -0,0 +1,144 @@
+package ai.xfloor.examples.memory.media;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the EXIF orientation of a JPEG and bakes it into the pixels. Re-encoding drops all
+ * metadata, so without this a rotated phone photo would upload sideways.
+ */
+final class ExifOrientation {
+  static final int NORMAL = 1;
+  private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+
+  private ExifOrientation() {}
+
+  /** Scans JPEG segments up to the first scan; returns {@link #NORMAL} when none is found. */
+  static int read(InputStream input) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+    try {
+      if (data.readUnsignedShort() != 0xFFD8) {
+        return NORMAL;
+      }
+
+      while (true) {
+        int marker = data.readUnsignedShort();
+        if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+          return NORMAL;
+        }
+
+        int length = data.readUnsignedShort() - 2;
+        if (length < 0) {
+          return NORMAL;
+        }
+        if (marker != 0xFFE1 || length < EXIF_HEADER.length + 8) {
+          data.skipNBytes(length);
+          continue;
+        }
+
+        byte[] segment = new byte[length];
+        data.readFully(segment);
+        if (startsWithExifHeader(segment)) {
+          return tiffOrientation(segment, EXIF_HEADER.length);
+        }
+      }
+    } catch (EOFException ex) {
+      return NORMAL;
+    }
+  }
+
+  static BufferedImage apply(BufferedImage image, int orientation) {
+    if (orientation <= NORMAL || orientation > 8) {
+      return image;
+    }
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+    boolean swapsAxes = orientation >= 5;
+    AffineTransform transform = new AffineTransform();
+    switch (orientation) {
+      case 2 -> transform.scale(-1, 1);
+      case 3 -> transform.rotate(Math.PI);
+      case 4 -> transform.scale(1, -1);
+      case 5 -> {
+        transform.rotate(Math.PI / 2);
+        transform.scale(1, -1);
+      }
+      case 6 -> transform.rotate(Math.PI / 2);
+      case 7 -> {
+        transform.rotate(-Math.PI / 2);
+        transform.scale(1, -1);
+      }
+      case 8 -> transform.rotate(-Math.PI / 2);
+      default -> {
+        return image;
+      }
+    }
+
+    // Move the transformed image back into the positive quadrant.
+    Rectangle2D bounds =
+        transform.createTransformedShape(new Rectangle(width, height)).getBounds2D();
+    AffineTransform translated =
+        AffineTransform.getTranslateInstance(-bounds.getX(), -bounds.getY());
+    translated.concatenate(transform);
+
+    BufferedImage oriented =
+        new BufferedImage(swapsAxes ? height : width, swapsAxes ? width : height, image.getType());
+    Graphics2D graphics = oriented.createGraphics();
+    try {
+      graphics.drawImage(image, translated, null);
+    } finally {
+      graphics.dispose();
+    }
+    return oriented;
+  }
+
+  private static boolean startsWithExifHeader(byte[] segment) {
+    for (int index = 0; index < EXIF_HEADER.length; index++) {
+      if (segment[index] != EXIF_HEADER[index]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int tiffOrientation(byte[] segment, int tiffStart) {
+    boolean littleEndian = segment[tiffStart] == 'I' && segment[tiffStart + 1] == 'I';
+    long ifdOffset = readUnsigned(segment, tiffStart + 4, 4, littleEndian);
+    if (ifdOffset < 8 || tiffStart + ifdOffset + 2 > segment.length) {
+      return NORMAL;
+    }
+
+    int ifdStart = (int) (tiffStart + ifdOffset);
+    int entries = (int) readUnsigned(segment, ifdStart, 2, littleEndian);
+    for (int entry = 0; entry < entries; entry++) {
+      int entryStart = ifdStart + 2 + entry * 12;
+      if (entryStart + 12 > segment.length) {
+        return NORMAL;
+      }
+      if (readUnsigned(segment, entryStart, 2, littleEndian) == 0x0112) {
+        int orientation = (int) readUnsigned(segment, entryStart + 8, 2, littleEndian);
+        return orientation >= 1 && orientation <= 8 ? orientation : NORMAL;
+      }
+    }
+    return NORMAL;
+  }
+
+  private static long readUnsigned(byte[] bytes, int offset, int length, boolean littleEndian) {
+    long value = 0;
+    for (int index = 0; index < length; index++) {
+      int shift = littleEndian ? index * 8 : (length - 1 - index) * 8;
+      value |= (long) (bytes[offset + index] & 0xFF) << shift;
+    }
+    return value;
+  }
+}
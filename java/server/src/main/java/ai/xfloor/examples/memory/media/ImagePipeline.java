@@ -0,0 +1,311 @@
+package ai.xfloor.examples.memory.media;
+
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Optional upload pipeline that downscales JPEG and PNG images to a maximum dimension, re-encodes
+ * JPEGs at a target quality and drops their metadata. Work runs on a bounded pool; when the pool
+ * is saturated, a file is not an image, or the result is not smaller, the original is uploaded.
+ */
+@Component
+public class ImagePipeline {
+  private static final Logger log = LoggerFactory.getLogger(ImagePipeline.class);
+
+  private final XfloorProperties.Media settings;
+  private final ThreadPoolExecutor workers;
+
+  public ImagePipeline(XfloorProperties properties) {
+    this.settings = properties.getMedia();
+    int threads =
+        settings.getWorkerThreads() > 0
+            ? settings.getWorkerThreads()
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.workers =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            30,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())),
+            runnable -> {
+              String name = "xfloor-media-" + threadNumber.incrementAndGet();
+              Thread thread = new Thread(runnable, name);
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    workers.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Writes an optimized copy of {@code source} to {@code target}. Returns {@code false} when the
+   * caller should store the original upload instead.
+   */
+  public boolean transcode(MultipartFile source, File target) {
+    if (!settings.isEnabled()
+        || source.getSize() < settings.getMinBytes()
+        || !looksLikeImage(source)) {
+      return false;
+    }
+
+    TranscodeTask task = new TranscodeTask(() -> transcodeToScratch(source));
+    try {
+      workers.execute(task);
+    } catch (RejectedExecutionException ex) {
+      return false;
+    }
+
+    try {
+      Path scratch = task.get(settings.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+      if (scratch == null) {
+        return false;
+      }
+      Files.move(scratch, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      return true;
+    } catch (TimeoutException ex) {
+      log.debug("Image transcoding timed out for {}", source.getOriginalFilename());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | IOException ex) {
+      log.debug("Image transcoding failed for {}: {}", source.getOriginalFilename(), ex.toString());
+    }
+
+    // Stop the worker: the request is about to upload the original, and Spring may delete the
+    // multipart temp file the worker is still reading. A result it already produced is dropped.
+    if (!task.cancel(true)) {
+      deleteQuietly(completedScratch(task));
+    }
+    return false;
+  }
+
+  private Path transcodeToScratch(MultipartFile source) {
+    Path scratch = null;
+    try {
+      int orientation = ExifOrientation.NORMAL;
+      try (InputStream header = source.getInputStream()) {
+        orientation = ExifOrientation.read(header);
+      }
+
+      // ImageIO ignores interrupts, so a cancelled task stops between its stages instead.
+      if (Thread.currentThread().isInterrupted()) {
+        return null;
+      }
+      Decoded decoded = decode(source);
+      if (decoded == null || Thread.currentThread().isInterrupted()) {
+        return null;
+      }
+
+      boolean jpeg = decoded.format.equals("jpeg");
+      if (!jpeg && !decoded.downscaled) {
+        // PNG is lossless: re-encoding at the same size rarely saves anything.
+        return null;
+      }
+
+      BufferedImage image = ExifOrientation.apply(decoded.image, jpeg ? orientation : 1);
+      if (Thread.currentThread().isInterrupted()) {
+        return null;
+      }
+      scratch = Files.createTempFile("xfloor-media-", jpeg ? ".jpg" : ".png");
+      if (jpeg) {
+        writeJpeg(image, scratch);
+      } else {
+        ImageIO.write(image, "png", scratch.toFile());
+      }
+
+      if (Files.size(scratch) >= source.getSize()) {
+        deleteQuietly(scratch);
+        return null;
+      }
+      return scratch;
+    } catch (IOException | RuntimeException ex) {
+      deleteQuietly(scratch);
+      log.debug("Skipping transcoding for {}: {}", source.getOriginalFilename(), ex.toString());
+      return null;
+    }
+  }
+
+  /**
+   * Decodes with source subsampling so large photos are never materialized at full resolution,
+   * then finishes with a smooth resize to the configured maximum dimension.
+   */
+  private Decoded decode(MultipartFile source) throws IOException {
+    try (InputStream input = source.getInputStream();
+        ImageInputStream imageInput = ImageIO.createImageInputStream(input)) {
+      if (imageInput == null) {
+        return null;
+      }
+
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+      if (!readers.hasNext()) {
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+        if (format.equals("jpg")) {
+          format = "jpeg";
+        }
+        if (!format.equals("jpeg") && !format.equals("png")) {
+          return null;
+        }
+
+        reader.setInput(imageInput, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        int maxDimension = Math.max(1, settings.getMaxDimension());
+        int longest = Math.max(width, height);
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, longest / maxDimension);
+        if (subsampling > 1) {
+          param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+
+        BufferedImage image = reader.read(0, param);
+        boolean hasAlpha = format.equals("png") && image.getColorModel().hasAlpha();
+        BufferedImage resized = resize(image, maxDimension, hasAlpha);
+        return new Decoded(format, resized, longest > maxDimension);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private BufferedImage resize(BufferedImage image, int maxDimension, boolean hasAlpha) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+    int targetWidth = Math.max(1, (int) Math.round(width * scale));
+    int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+    BufferedImage resized =
+        new BufferedImage(
+            targetWidth,
+            targetHeight,
+            hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = resized.createGraphics();
+    try {
+      graphics.setRenderingHint(
+          RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+    } finally {
+      graphics.dispose();
+    }
+    return resized;
+  }
+
+  private void writeJpeg(BufferedImage image, Path target) throws IOException {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+    if (!writers.hasNext()) {
+      throw new IOException("No JPEG writer available");
+    }
+
+    ImageWriter writer = writers.next();
+    try (OutputStream output = Files.newOutputStream(target);
+        ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(settings.getJpegQuality());
+      writer.setOutput(imageOutput);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  private static boolean looksLikeImage(MultipartFile file) {
+    String contentType = file.getContentType();
+    if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+      return true;
+    }
+
+    String name = file.getOriginalFilename();
+    if (name == null) {
+      return false;
+    }
+    String lowered = name.toLowerCase(Locale.ROOT);
+    return lowered.endsWith(".jpg") || lowered.endsWith(".jpeg") || lowered.endsWith(".png");
+  }
+
+  private static Path completedScratch(TranscodeTask task) {
+    try {
+      return task.get();
+    } catch (ExecutionException | CancellationException ex) {
+      return null;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ignored) {
+      path.toFile().deleteOnExit();
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    workers.shutdownNow();
+  }
+
+  /** Deletes the scratch file of a task that finished after it was cancelled. */
+  private static final class TranscodeTask extends FutureTask<Path> {
+    TranscodeTask(Callable<Path> callable) {
+      super(callable);
+    }
+
+    @Override
+    protected void set(Path scratch) {
+      super.set(scratch);
+      if (isCancelled()) {
+        deleteQuietly(scratch);
+      }
+    }
+  }
+
+  private record Decoded(String format, BufferedImage image, boolean downscaled) {}
+}
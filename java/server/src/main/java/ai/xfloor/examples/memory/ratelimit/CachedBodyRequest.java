@@ -0,0 +1,83 @@
+package ai.xfloor.examples.memory.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/** Buffers a small JSON body so the limiter can read keys from it and the controller still can. */
+final class CachedBodyRequest extends HttpServletRequestWrapper {
+  private final byte[] body;
+
+  private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+    super(request);
+    this.body = body;
+  }
+
+  /** Buffers the body, or returns {@code null} when it is larger than {@code maxBytes}. */
+  static CachedBodyRequest read(HttpServletRequest request, int maxBytes) throws IOException {
+    if (request.getContentLengthLong() > maxBytes) {
+      return null;
+    }
+    byte[] body = request.getInputStream().readNBytes(maxBytes + 1);
+    return body.length > maxBytes ? null : new CachedBodyRequest(request, body);
+  }
+
+  byte[] body() {
+    return body;
+  }
+
+  @Override
+  public ServletInputStream getInputStream() {
+    ByteArrayInputStream input = new ByteArrayInputStream(body);
+    return new ServletInputStream() {
+      @Override
+      public boolean isFinished() {
+        return input.available() == 0;
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setReadListener(ReadListener listener) {
+        // The whole body is already in memory, so it is available at once.
+        try {
+          if (!isFinished()) {
+            listener.onDataAvailable();
+          }
+          if (isFinished()) {
+            listener.onAllDataRead();
+          }
+        } catch (IOException ex) {
+          listener.onError(ex);
+        }
+      }
+
+      @Override
+      public int read() {
+        return input.read();
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) {
+        return input.read(buffer, offset, length);
+      }
+    };
+  }
+
+  @Override
+  public BufferedReader getReader() {
+    String encoding = getCharacterEncoding();
+    Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+    return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+  }
+}
@@ -0,0 +1,227 @@
+package ai.xfloor.examples.memory.ratelimit;
+
+import ai.xfloor.examples.memory.auth.BearerTokens;
+import ai.xfloor.examples.memory.auth.TokenIdentityCache;
+import ai.xfloor.examples.memory.config.CorsConfig;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import ai.xfloor.memory.client.JSON;
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Rejects bursts on auth and query endpoints before they reach {@code MemoryController} and the
+ * xFloor API. Every request is checked against the client IP, {@code app_id}, bearer token and,
+ * for auth calls, the {@code email_id}/{@code mobile_number} being signed in.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final Set<String> AUTH_PATHS =
+      Set.of(
+          "/memory/auth/sign-in/email",
+          "/memory/auth/sign-in/mobile",
+          "/memory/auth/send-validation-code",
+          "/memory/auth/sign-up");
+  private static final String QUERY_PATH = "/memory/query";
+
+  private final XfloorProperties properties;
+  private final XfloorProperties.RateLimit settings;
+  private final TokenBucketLimiter limiter;
+  private final ScheduledExecutorService sweeper;
+  private final TokenIdentityCache tokenIdentityCache;
+  private final Gson gson;
+  private final Map<String, Counter> rejections = new LinkedHashMap<>();
+
+  public RateLimitFilter(
+      XfloorProperties properties,
+      TokenIdentityCache tokenIdentityCache,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.settings = properties.getRateLimit();
+    this.limiter = new TokenBucketLimiter(settings.getMaxKeys());
+    this.sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "xfloor-ratelimit-sweeper");
+              thread.setDaemon(true);
+              return thread;
+            });
+    // Full buckets are dropped here rather than on the request thread that finds the map full.
+    sweeper.scheduleWithFixedDelay(
+        () -> limiter.evictFullBuckets(System.nanoTime()), 1, 1, TimeUnit.SECONDS);
+    this.tokenIdentityCache = tokenIdentityCache;
+    this.gson = JSON.getGson();
+    for (String keyType : List.of("ip", "app", "token", "account")) {
+      rejections.put(
+          keyType,
+          Counter.builder("xfloor.ratelimit.rejected")
+              .description("Requests rejected by the local rate limiter")
+              .tag("key", keyType)
+              .register(meterRegistry));
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    sweeper.shutdownNow();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!settings.isEnabled() || !"POST".equalsIgnoreCase(request.getMethod())) {
+      return true;
+    }
+    String path = lookupPath(request);
+    return !AUTH_PATHS.contains(path) && !QUERY_PATH.equals(path);
+  }
+
+  /**
+   * The path MVC routes on: decoded, without {@code ;} parameters and with duplicate slashes
+   * collapsed, so {@code /memory/%71uery} or {@code /memory/query;x} cannot skip the limits.
+   */
+  private static String lookupPath(HttpServletRequest request) {
+    return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    CachedBodyRequest cachedRequest = CachedBodyRequest.read(request, settings.getMaxBodyBytes());
+    if (cachedRequest == null) {
+      writeError(
+          request,
+          response,
+          HttpStatus.PAYLOAD_TOO_LARGE,
+          Map.of("message", "Request body is too large."));
+      return;
+    }
+    Map<?, ?> payload = parsePayload(cachedRequest);
+    boolean authPath = AUTH_PATHS.contains(lookupPath(request));
+    long now = System.nanoTime();
+    List<Grant> granted = new ArrayList<>(4);
+
+    // Behind a proxy this is the forwarded client address (server.forward-headers-strategy).
+    long waitNanos = check("ip", request.getRemoteAddr(), settings.getIp(), now, granted);
+    if (waitNanos == 0) {
+      waitNanos =
+          check("app", stringValue(payload.get("app_id")), settings.getApp(), now, granted);
+    }
+    if (waitNanos == 0) {
+      // Keyed by user once the token is known, so fresh sign-ins do not reset the bucket.
+      String token = BearerTokens.fromAuthorization(request.getHeader(HttpHeaders.AUTHORIZATION));
+      String identity = token == null ? null : tokenIdentityCache.identityKey(token);
+      waitNanos = check("token", identity, settings.getToken(), now, granted);
+    }
+    if (waitNanos == 0 && authPath) {
+      String account = stringValue(payload.get("email_id"));
+      if (account == null) {
+        account = stringValue(payload.get("mobile_number"));
+      }
+      if (account != null) {
+        account = account.toLowerCase(Locale.ROOT);
+      }
+      waitNanos = check("account", account, settings.getAccount(), now, granted);
+    }
+
+    if (waitNanos == 0) {
+      filterChain.doFilter(cachedRequest, response);
+    } else {
+      // A rejected request should not also use up the keys it passed before the failing one.
+      for (Grant grant : granted) {
+        limiter.refund(grant.key(), grant.limit());
+      }
+      reject(request, response, waitNanos);
+    }
+  }
+
+  private long check(
+      String keyType,
+      String keyValue,
+      XfloorProperties.RateLimit.Limit limit,
+      long nowNanos,
+      List<Grant> granted) {
+    if (keyValue == null || !limit.isEnabled()) {
+      return 0;
+    }
+
+    String key = keyType + ':' + keyValue;
+    long waitNanos = limiter.tryAcquire(key, limit, nowNanos);
+    if (waitNanos > 0) {
+      rejections.get(keyType).increment();
+    } else {
+      granted.add(new Grant(key, limit));
+    }
+    return waitNanos;
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+      throws IOException {
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+
+    Map<String, Object> error = new LinkedHashMap<>();
+    error.put("message", "Too many requests. Retry later.");
+    error.put("details", Map.of("retry_after_seconds", retryAfterSeconds));
+
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    writeError(request, response, HttpStatus.TOO_MANY_REQUESTS, error);
+  }
+
+  private void writeError(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      HttpStatus status,
+      Map<String, Object> error)
+      throws IOException {
+    CorsConfig.applyToRejection(request, response, properties);
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.getWriter().write(gson.toJson(Map.of("error", error)));
+  }
+
+  private Map<?, ?> parsePayload(CachedBodyRequest request) {
+    if (request.body().length == 0) {
+      return Map.of();
+    }
+    try {
+      String body = new String(request.body(), StandardCharsets.UTF_8);
+      Object parsed = gson.fromJson(body, Object.class);
+      return parsed instanceof Map<?, ?> map ? map : Map.of();
+    } catch (Exception ignored) {
+      return Map.of();
+    }
+  }
+
+  private String stringValue(Object value) {
+    if (value == null) {
+      return null;
+    }
+    String normalized = String.valueOf(value).trim();
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  private record Grant(String key, XfloorProperties.RateLimit.Limit limit) {}
+}
@@ -0,0 +1,70 @@
+package ai.xfloor.examples.memory.ratelimit;
+
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets expressed as a theoretical arrival time per key (GCRA). Each bucket is a single
+ * {@link AtomicLong} updated by CAS and the buckets live in a {@link ConcurrentHashMap}, so hot
+ * keys never contend on a shared lock. Once {@code maxKeys} buckets exist, new keys share one
+ * overflow bucket per limit until {@link #evictFullBuckets} makes room off the request path.
+ */
+final class TokenBucketLimiter {
+  private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<XfloorProperties.RateLimit.Limit, AtomicLong> overflow =
+      new ConcurrentHashMap<>();
+  private final int maxKeys;
+
+  TokenBucketLimiter(int maxKeys) {
+    this.maxKeys = maxKeys;
+  }
+
+  /** Takes one token; returns {@code 0} when granted, otherwise the nanos until one is free. */
+  long tryAcquire(String key, XfloorProperties.RateLimit.Limit limit, long nowNanos) {
+    long interval = (long) (1_000_000_000L / limit.getPermitsPerSecond());
+    long tolerance = interval * (Math.max(1, limit.getBurst()) - 1L);
+    AtomicLong arrival = bucket(key, limit, nowNanos);
+
+    while (true) {
+      long theoreticalArrival = arrival.get();
+      long waitNanos = theoreticalArrival - tolerance - nowNanos;
+      if (waitNanos > 0) {
+        return waitNanos;
+      }
+
+      long next = Math.max(theoreticalArrival, nowNanos) + interval;
+      if (arrival.compareAndSet(theoreticalArrival, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /** Returns a token taken by {@link #tryAcquire} for a request that was rejected anyway. */
+  void refund(String key, XfloorProperties.RateLimit.Limit limit) {
+    AtomicLong arrival = arrivals.get(key);
+    if (arrival == null) {
+      arrival = overflow.get(limit);
+    }
+    if (arrival != null) {
+      arrival.addAndGet(-(long) (1_000_000_000L / limit.getPermitsPerSecond()));
+    }
+  }
+
+  /** A bucket whose arrival time has passed is full again and can be forgotten. */
+  void evictFullBuckets(long nowNanos) {
+    arrivals.values().removeIf(arrival -> arrival.get() - nowNanos <= 0);
+    overflow.values().removeIf(arrival -> arrival.get() - nowNanos <= 0);
+  }
+
+  private AtomicLong bucket(String key, XfloorProperties.RateLimit.Limit limit, long nowNanos) {
+    AtomicLong arrival = arrivals.get(key);
+    if (arrival != null) {
+      return arrival;
+    }
+    if (arrivals.size() >= maxKeys) {
+      return overflow.computeIfAbsent(limit, ignored -> new AtomicLong(nowNanos));
+    }
+    return arrivals.computeIfAbsent(key, ignored -> new AtomicLong(nowNanos));
+  }
+}
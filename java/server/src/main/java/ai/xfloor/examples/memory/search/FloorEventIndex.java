@@ -0,0 +1,265 @@
+package ai.xfloor.examples.memory.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable inverted index over one floor's recent events. Text terms are kept sorted so prefix
+ * lookups are a binary search plus a contiguous scan; postings are ascending primitive doc ids.
+ */
+final class FloorEventIndex {
+  private final List<Map<String, Object>> events;
+  private final long[] createdAtMs;
+  private final int[] newestFirst;
+  private final String[] terms;
+  private final int[][] termPostings;
+  private final Map<String, int[]> tagPostings;
+  private final long builtAtMs;
+
+  private FloorEventIndex(List<Map<String, Object>> events) {
+    this.events = List.copyOf(events);
+    this.createdAtMs = new long[events.size()];
+    this.builtAtMs = System.currentTimeMillis();
+
+    TreeMap<String, IntBuffer> termBuffers = new TreeMap<>();
+    Map<String, IntBuffer> tagBuffers = new HashMap<>();
+    for (int docId = 0; docId < events.size(); docId++) {
+      Map<String, Object> event = events.get(docId);
+      createdAtMs[docId] = createdAtMs(event);
+
+      for (String term : textTerms(event)) {
+        termBuffers.computeIfAbsent(term, key -> new IntBuffer()).addDistinct(docId);
+      }
+      for (String tag : tags(event)) {
+        tagBuffers.computeIfAbsent(tag, key -> new IntBuffer()).addDistinct(docId);
+      }
+    }
+
+    this.terms = termBuffers.keySet().toArray(String[]::new);
+    this.termPostings = new int[terms.length][];
+    int termIndex = 0;
+    for (IntBuffer postings : termBuffers.values()) {
+      termPostings[termIndex++] = postings.toArray();
+    }
+
+    this.tagPostings = new HashMap<>(tagBuffers.size() * 2);
+    tagBuffers.forEach((tag, postings) -> tagPostings.put(tag, postings.toArray()));
+
+    this.newestFirst =
+        IntStream.range(0, events.size())
+            .boxed()
+            .sorted((left, right) -> Long.compare(createdAtMs[right], createdAtMs[left]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+  }
+
+  static FloorEventIndex of(List<Map<String, Object>> events) {
+    return new FloorEventIndex(events);
+  }
+
+  List<Map<String, Object>> events() {
+    return events;
+  }
+
+  long builtAtMs() {
+    return builtAtMs;
+  }
+
+  /**
+   * Returns events newest first that match every text prefix and every tag, restricted to the
+   * inclusive {@code [fromMs, toMs]} creation-time window when bounds are given.
+   */
+  List<Map<String, Object>> search(
+      List<String> prefixes, List<String> tags, Long fromMs, Long toMs, int limit) {
+    BitSet candidates = null;
+
+    for (String prefix : prefixes) {
+      candidates = intersect(candidates, prefixMatches(normalize(prefix)));
+    }
+    for (String tag : tags) {
+      int[] postings = tagPostings.get(normalize(tag));
+      candidates = intersect(candidates, toBitSet(postings == null ? new int[0] : postings));
+    }
+
+    int start = toMs == null ? 0 : firstAtOrBefore(toMs);
+    int end = fromMs == null ? newestFirst.length : firstAtOrBefore(fromMs - 1);
+
+    List<Map<String, Object>> results = new ArrayList<>();
+    for (int position = start; position < end && results.size() < limit; position++) {
+      int docId = newestFirst[position];
+      if (candidates == null || candidates.get(docId)) {
+        results.add(events.get(docId));
+      }
+    }
+    return results;
+  }
+
+  private BitSet prefixMatches(String prefix) {
+    BitSet matches = new BitSet(events.size());
+    if (prefix.isEmpty()) {
+      matches.set(0, events.size());
+      return matches;
+    }
+
+    int index = Arrays.binarySearch(terms, prefix);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    for (; index < terms.length && terms[index].startsWith(prefix); index++) {
+      for (int docId : termPostings[index]) {
+        matches.set(docId);
+      }
+    }
+    return matches;
+  }
+
+  /** First position in {@link #newestFirst} whose event was created at or before {@code ms}. */
+  private int firstAtOrBefore(long ms) {
+    int low = 0;
+    int high = newestFirst.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (createdAtMs[newestFirst[mid]] > ms) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static BitSet intersect(BitSet current, BitSet next) {
+    if (current == null) {
+      return next;
+    }
+    current.and(next);
+    return current;
+  }
+
+  private static BitSet toBitSet(int[] postings) {
+    BitSet bits = new BitSet();
+    for (int docId : postings) {
+      bits.set(docId);
+    }
+    return bits;
+  }
+
+  static long createdAtMs(Map<String, Object> event) {
+    Object value = event.get("created_at_ms");
+    if (value instanceof Number number) {
+      return number.longValue();
+    }
+    if (value != null) {
+      try {
+        return Long.parseLong(String.valueOf(value).trim());
+      } catch (NumberFormatException ignored) {
+        return 0L;
+      }
+    }
+    return 0L;
+  }
+
+  private static List<String> textTerms(Map<String, Object> event) {
+    List<String> terms = new ArrayList<>();
+    tokenize(stringValue(event.get("title")), terms, null);
+    tokenize(stripHtml(stringValue(event.get("text"))), terms, null);
+    return terms;
+  }
+
+  private static List<String> tags(Map<String, Object> event) {
+    List<String> tags = new ArrayList<>();
+    if (event.get("tags") instanceof List<?> rawTags) {
+      for (Object tag : rawTags) {
+        String normalized = normalize(stringValue(tag));
+        if (!normalized.isEmpty()) {
+          tags.add(normalized);
+        }
+      }
+    }
+
+    String blockType = normalize(stringValue(event.get("block_type")));
+    if (!blockType.isEmpty()) {
+      tags.add("block:" + blockType);
+    }
+
+    if (event.get("media") instanceof List<?> media) {
+      for (Object item : media) {
+        if (item instanceof Map<?, ?> mediaItem) {
+          String type = normalize(stringValue(mediaItem.get("type")));
+          if (!type.isEmpty()) {
+            tags.add("media:" + type);
+          }
+        }
+      }
+    }
+
+    tokenize(stringValue(event.get("title")), null, tags);
+    tokenize(stripHtml(stringValue(event.get("text"))), null, tags);
+    return tags;
+  }
+
+  /** Splits on non-alphanumerics; words written as {@code #word} are also collected as tags. */
+  private static void tokenize(String value, List<String> terms, List<String> hashtags) {
+    int length = value.length();
+    int index = 0;
+    while (index < length) {
+      while (index < length && !Character.isLetterOrDigit(value.charAt(index))) {
+        index++;
+      }
+      int start = index;
+      while (index < length && Character.isLetterOrDigit(value.charAt(index))) {
+        index++;
+      }
+      if (start == index) {
+        continue;
+      }
+
+      String token = value.substring(start, index).toLowerCase(Locale.ROOT);
+      if (terms != null) {
+        terms.add(token);
+      }
+      if (hashtags != null && start > 0 && value.charAt(start - 1) == '#') {
+        hashtags.add(token);
+      }
+    }
+  }
+
+  private static String stripHtml(String value) {
+    return value.indexOf('<') < 0 ? value : value.replaceAll("<[^>]*>", " ");
+  }
+
+  private static String stringValue(Object value) {
+    return value == null ? "" : String.valueOf(value);
+  }
+
+  static String normalize(String value) {
+    String trimmed = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    return trimmed.startsWith("#") ? trimmed.substring(1) : trimmed;
+  }
+
+  private static final class IntBuffer {
+    private int[] values = new int[4];
+    private int size;
+
+    void addDistinct(int value) {
+      if (size > 0 && values[size - 1] == value) {
+        return;
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
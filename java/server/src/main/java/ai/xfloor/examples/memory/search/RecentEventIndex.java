@@ -0,0 +1,214 @@
+package ai.xfloor.examples.memory.search;
+
+import ai.xfloor.examples.memory.cache.CacheKeys;
+import ai.xfloor.examples.memory.cache.InvalidationBus;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-floor in-memory index of recent events, fed by upstream recent-events responses and by
+ * events created through this server. Each floor view (app, floor, optional user) holds an
+ * immutable {@link FloorEventIndex} that is swapped on update, so searches never lock. Every fresh
+ * upstream list replaces its view, keeping only locally created events upstream has not returned
+ * yet. Views are dropped when a peer replica reports a write to their floor.
+ */
+@Component
+public class RecentEventIndex {
+  static final String PENDING_PREFIX = "pending:";
+  private static final long PENDING_TTL_MS = 10 * 60 * 1000L;
+
+  private final XfloorProperties.RecentIndex settings;
+  private final Map<ViewKey, FloorEventIndex> indexes = new ConcurrentHashMap<>();
+
+  public RecentEventIndex(XfloorProperties properties, InvalidationBus invalidationBus) {
+    this.settings = properties.getRecentIndex();
+    invalidationBus.subscribe(
+        (keys, fromPeer) -> {
+          // A local write evicts the cached recent events, so the next search reloads and
+          // rebuilds the view; dropping it here would also lose the event recordCreated adds.
+          if (fromPeer) {
+            indexes.keySet().removeIf(view -> view.matchesAny(keys));
+          }
+        });
+  }
+
+  public boolean isEnabled() {
+    return settings.isEnabled();
+  }
+
+  public boolean contains(String appId, String floorId, String userId) {
+    return indexes.containsKey(new ViewKey(appId, floorId, userId));
+  }
+
+  /** Rebuilds the floor view from a plain {@code getRecentEvents} response body. */
+  public void ingest(String appId, String floorId, String userId, Object responseBody) {
+    if (!isEnabled() || !(responseBody instanceof Map<?, ?> body)) {
+      return;
+    }
+    if (!(body.get("items") instanceof List<?> rawItems)) {
+      return;
+    }
+
+    List<Map<String, Object>> incoming = new ArrayList<>();
+    for (Object item : rawItems) {
+      if (item instanceof Map<?, ?> rawEvent && rawEvent.get("event_id") != null) {
+        incoming.add(toStringKeyMap(rawEvent));
+      }
+    }
+
+    ViewKey key = new ViewKey(appId, floorId, userId);
+    evictIfFull(key);
+    indexes.compute(key, (ignored, current) -> rebuild(current, incoming));
+  }
+
+  /**
+   * Adds an accepted {@code createEvent} to the views that already exist for its floor. Upstream
+   * ingestion is asynchronous and returns no event id, so the event is held under a pending id
+   * until a later recent-events response contains it or it expires.
+   */
+  public void recordCreated(String appId, Map<String, Object> inputInfo) {
+    if (!isEnabled() || inputInfo == null) {
+      return;
+    }
+
+    String floorId = stringOrNull(inputInfo.get("floor_id"));
+    if (floorId == null) {
+      return;
+    }
+
+    Map<String, Object> event = new LinkedHashMap<>();
+    event.put("event_id", PENDING_PREFIX + UUID.randomUUID());
+    event.put("block_type", inputInfo.get("block_type"));
+    // createEvent takes the block as BID; recent-events responses call it block_id.
+    Object blockId = inputInfo.get("BID");
+    event.put("block_id", blockId != null ? blockId : inputInfo.get("block_id"));
+    event.put("floor_uid", floorId);
+    event.put("title", inputInfo.get("title"));
+    event.put("text", inputInfo.get("description"));
+    event.put("created_at_ms", String.valueOf(System.currentTimeMillis()));
+
+    for (ViewKey key :
+        List.of(
+            new ViewKey(appId, floorId, stringOrNull(inputInfo.get("user_id"))),
+            new ViewKey(appId, floorId, null))) {
+      indexes.computeIfPresent(key, (ignored, current) -> withPending(current, event));
+    }
+  }
+
+  /** Returns matching events newest first, or {@code null} when the floor view is not indexed. */
+  public List<Map<String, Object>> search(
+      String appId,
+      String floorId,
+      String userId,
+      List<String> prefixes,
+      List<String> tags,
+      Long fromMs,
+      Long toMs,
+      int limit) {
+    FloorEventIndex index = indexes.get(new ViewKey(appId, floorId, userId));
+    if (index == null) {
+      return null;
+    }
+    return index.search(prefixes, tags, fromMs, toMs, Math.max(1, limit));
+  }
+
+  /**
+   * Replaces the view with {@code upstream}, so events xFloor no longer returns (deleted or made
+   * private) leave the index. Pending events carry over until upstream confirms or they expire.
+   */
+  private FloorEventIndex rebuild(FloorEventIndex current, List<Map<String, Object>> upstream) {
+    List<Map<String, Object>> events = new ArrayList<>(upstream);
+    if (current != null) {
+      long now = System.currentTimeMillis();
+      for (Map<String, Object> event : current.events()) {
+        if (isLivePending(event, now) && !confirmedBy(event, upstream)) {
+          events.add(event);
+        }
+      }
+    }
+    return newestFirst(events);
+  }
+
+  private FloorEventIndex withPending(FloorEventIndex current, Map<String, Object> pending) {
+    List<Map<String, Object>> events = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    for (Map<String, Object> event : current.events()) {
+      if (!isPending(event) || isLivePending(event, now)) {
+        events.add(event);
+      }
+    }
+    events.add(pending);
+    return newestFirst(events);
+  }
+
+  private FloorEventIndex newestFirst(List<Map<String, Object>> events) {
+    return FloorEventIndex.of(
+        events.stream()
+            .sorted(
+                Comparator.<Map<String, Object>>comparingLong(FloorEventIndex::createdAtMs)
+                    .reversed())
+            .limit(Math.max(1, settings.getMaxEventsPerFloor()))
+            .toList());
+  }
+
+  private static boolean isPending(Map<String, Object> event) {
+    return String.valueOf(event.get("event_id")).startsWith(PENDING_PREFIX);
+  }
+
+  private static boolean isLivePending(Map<String, Object> event, long now) {
+    return isPending(event) && now - FloorEventIndex.createdAtMs(event) <= PENDING_TTL_MS;
+  }
+
+  private boolean confirmedBy(Map<String, Object> pending, List<Map<String, Object>> incoming) {
+    for (Map<String, Object> event : incoming) {
+      if (Objects.equals(stringOrNull(pending.get("title")), stringOrNull(event.get("title")))
+          && Objects.equals(stringOrNull(pending.get("text")), stringOrNull(event.get("text")))
+          && !isPending(event)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void evictIfFull(ViewKey incomingKey) {
+    if (indexes.containsKey(incomingKey) || indexes.size() < settings.getMaxFloors()) {
+      return;
+    }
+
+    indexes.entrySet().stream()
+        .min(Comparator.comparingLong(entry -> entry.getValue().builtAtMs()))
+        .ifPresent(oldest -> indexes.remove(oldest.getKey(), oldest.getValue()));
+  }
+
+  private static String stringOrNull(Object value) {
+    if (value == null) {
+      return null;
+    }
+    String normalized = String.valueOf(value).trim();
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  private static Map<String, Object> toStringKeyMap(Map<?, ?> raw) {
+    Map<String, Object> mapped = new LinkedHashMap<>();
+    for (Map.Entry<?, ?> entry : raw.entrySet()) {
+      if (entry.getKey() != null) {
+        mapped.put(String.valueOf(entry.getKey()), entry.getValue());
+      }
+    }
+    return mapped;
+  }
+
+  private record ViewKey(String appId, String floorId, String userId) {
+    boolean matchesAny(List<String> invalidationKeys) {
+      return invalidationKeys.contains(CacheKeys.floor(appId, floorId));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package ai.xfloor.examples.memory.tracing;
+
+import com.google.gson.Gson;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Writes finished spans as JSON lines, for runs without an OTLP collector. */
+public class FileSpanExporter implements SpanExporter {
+  private final Gson gson;
+  private final BufferedWriter writer;
+
+  public FileSpanExporter(Gson gson, Path file) throws IOException {
+    this.gson = gson;
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.writer =
+        Files.newBufferedWriter(
+            file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try {
+      for (SpanData span : spans) {
+        writer.write(gson.toJson(toMap(span)));
+        writer.newLine();
+      }
+      writer.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException ex) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    try {
+      writer.close();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException ex) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  private Map<String, Object> toMap(SpanData span) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+
+    Map<String, Object> mapped = new LinkedHashMap<>();
+    mapped.put("trace_id", span.getTraceId());
+    mapped.put("span_id", span.getSpanId());
+    mapped.put("parent_span_id", span.getParentSpanId());
+    mapped.put("name", span.getName());
+    mapped.put("kind", span.getKind().name());
+    mapped.put("start_epoch_nanos", span.getStartEpochNanos());
+    mapped.put("duration_micros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+    mapped.put("status", span.getStatus().getStatusCode().name());
+    mapped.put("attributes", attributes);
+    return mapped;
+  }
+}
@@ -0,0 +1,38 @@
+package ai.xfloor.examples.memory.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.springframework.stereotype.Component;
+
+/** Wraps a unit of request work in a child span of the current request span. */
+@Component
+public class RequestTracer {
+  static final String INSTRUMENTATION_NAME = "ai.xfloor.examples.memory";
+
+  private final Tracer tracer;
+
+  public RequestTracer(OpenTelemetry openTelemetry) {
+    this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+  }
+
+  public <T, E extends Exception> T inSpan(String spanName, Work<T, E> work) throws E {
+    Span span = tracer.spanBuilder(spanName).startSpan();
+    try (Scope ignored = span.makeCurrent()) {
+      return work.run();
+    } catch (Exception ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR);
+      throw ex;
+    } finally {
+      span.end();
+    }
+  }
+
+  @FunctionalInterface
+  public interface Work<T, E extends Exception> {
+    T run() throws E;
+  }
+}
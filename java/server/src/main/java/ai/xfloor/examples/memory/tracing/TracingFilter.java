@@ -0,0 +1,95 @@
+package ai.xfloor.examples.memory.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Opens the inbound server span for every {@code /memory/*} request, continuing a caller's W3C
+ * trace context when present. Runs first so rate-limit rejections are traced too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+  private static final TextMapGetter<HttpServletRequest> HEADER_GETTER =
+      new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest carrier) {
+          return Collections.list(carrier.getHeaderNames());
+        }
+
+        @Override
+        public String get(HttpServletRequest carrier, String key) {
+          return carrier == null ? null : carrier.getHeader(key);
+        }
+      };
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+
+  public TracingFilter(OpenTelemetry openTelemetry) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = openTelemetry.getTracer(RequestTracer.INSTRUMENTATION_NAME);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !path.startsWith("/memory/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    Context parent =
+        openTelemetry
+            .getPropagators()
+            .getTextMapPropagator()
+            .extract(Context.current(), request, HEADER_GETTER);
+    Span span =
+        tracer
+            .spanBuilder(request.getMethod() + " " + path)
+            .setParent(parent)
+            .setSpanKind(SpanKind.SERVER)
+            .setAttribute("http.request.method", request.getMethod())
+            .setAttribute("url.path", path)
+            .startSpan();
+
+    try (Scope ignored = span.makeCurrent()) {
+      filterChain.doFilter(request, response);
+    } catch (ServletException | IOException | RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR);
+      throw ex;
+    } finally {
+      Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      if (route != null) {
+        span.updateName(request.getMethod() + " " + route);
+        span.setAttribute("http.route", String.valueOf(route));
+      }
+      span.setAttribute("http.response.status_code", response.getStatus());
+      if (response.getStatus() >= 500) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      span.end();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package ai.xfloor.examples.memory.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/** Client span per xFloor SDK call; also propagates the trace context to the xFloor API. */
+public class UpstreamTracingInterceptor implements Interceptor {
+  private static final TextMapSetter<Request.Builder> HEADER_SETTER =
+      (carrier, key, value) -> {
+        if (carrier != null) {
+          carrier.header(key, value);
+        }
+      };
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+
+  public UpstreamTracingInterceptor(OpenTelemetry openTelemetry) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = openTelemetry.getTracer(RequestTracer.INSTRUMENTATION_NAME);
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    String path = request.url().encodedPath();
+    Span span =
+        tracer
+            .spanBuilder("xfloor " + request.method())
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("http.request.method", request.method())
+            .setAttribute("server.address", request.url().host())
+            .setAttribute("url.path", path)
+            .startSpan();
+
+    try (Scope ignored = span.makeCurrent()) {
+      Request.Builder traced = request.newBuilder();
+      openTelemetry
+          .getPropagators()
+          .getTextMapPropagator()
+          .inject(Context.current(), traced, HEADER_SETTER);
+
+      Response response = chain.proceed(traced.build());
+      span.setAttribute("http.response.status_code", response.code());
+      if (response.code() >= 400) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      return response;
+    } catch (IOException | RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR);
+      throw ex;
+    } finally {
+      span.end();
+    }
+  }
+}
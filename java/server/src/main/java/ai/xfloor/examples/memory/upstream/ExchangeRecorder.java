@@ -0,0 +1,87 @@
+package ai.xfloor.examples.memory.upstream;
+
+import com.google.gson.Gson;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/** Appends every upstream exchange to a JSON-lines capture file. */
+class ExchangeRecorder implements Interceptor, Closeable {
+  private final Gson gson;
+  private final BufferedWriter writer;
+  private final long maxBodyBytes;
+
+  ExchangeRecorder(Gson gson, Path file, long maxBodyBytes) throws IOException {
+    this.gson = gson;
+    this.maxBodyBytes = maxBodyBytes;
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.writer =
+        Files.newBufferedWriter(
+            file,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    String bodyDigest = UpstreamExchange.digestOf(request.body());
+
+    long started = System.nanoTime();
+    Response response = chain.proceed(request);
+    // One byte past the limit tells a body that fits exactly from one that was cut short.
+    ResponseBody peeked = response.peekBody(maxBodyBytes + 1);
+    long latencyMicros = (System.nanoTime() - started) / 1_000;
+
+    UpstreamExchange exchange = new UpstreamExchange();
+    exchange.method = request.method();
+    exchange.path = request.url().encodedPath();
+    exchange.query = request.url().encodedQuery();
+    exchange.bodyDigest = bodyDigest;
+    exchange.status = response.code();
+    exchange.headers = UpstreamExchange.headersOf(response.headers());
+    exchange.latencyMicros = latencyMicros;
+
+    MediaType contentType = peeked.contentType();
+    byte[] bytes = peeked.bytes();
+    if (contentType != null) {
+      exchange.contentType = contentType.toString();
+    }
+    if (bytes.length > maxBodyBytes) {
+      exchange.truncated = true;
+    } else if (UpstreamExchange.isText(contentType)) {
+      exchange.body = new String(bytes, StandardCharsets.UTF_8);
+    } else if (bytes.length > 0) {
+      exchange.bodyBase64 = Base64.getEncoder().encodeToString(bytes);
+    }
+
+    append(gson.toJson(exchange));
+    return response;
+  }
+
+  private synchronized void append(String line) throws IOException {
+    writer.write(line);
+    writer.newLine();
+    writer.flush();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    writer.close();
+  }
+}
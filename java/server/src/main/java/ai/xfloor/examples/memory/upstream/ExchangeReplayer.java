@@ -0,0 +1,120 @@
+package ai.xfloor.examples.memory.upstream;
+
+import com.google.gson.Gson;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Serves upstream calls from a capture file instead of the network. Exchanges are consumed in
+ * recorded order per route; a JSON body digest is preferred when several calls share a route.
+ */
+class ExchangeReplayer implements Interceptor {
+  private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
+
+  private final Map<String, Deque<UpstreamExchange>> exchangesByRoute = new ConcurrentHashMap<>();
+  private final double speed;
+
+  ExchangeReplayer(Gson gson, Path file, double speed) throws IOException {
+    this.speed = speed;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        UpstreamExchange exchange = gson.fromJson(line, UpstreamExchange.class);
+        exchangesByRoute
+            .computeIfAbsent(exchange.route(), key -> new ArrayDeque<>())
+            .add(exchange);
+      }
+    }
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    UpstreamExchange exchange =
+        take(UpstreamExchange.route(request), UpstreamExchange.digestOf(request.body()));
+
+    if (exchange == null) {
+      return unavailable(request, "No recorded exchange for " + UpstreamExchange.route(request));
+    }
+    if (exchange.truncated) {
+      return unavailable(
+          request, "Recorded body exceeded the capture limit for " + exchange.route());
+    }
+
+    pace(exchange.latencyMicros);
+
+    MediaType contentType =
+        exchange.contentType == null ? null : MediaType.parse(exchange.contentType);
+    return new Response.Builder()
+        .request(request)
+        .protocol(Protocol.HTTP_1_1)
+        .code(exchange.status)
+        .message("Replayed")
+        .headers(exchange.replayHeaders())
+        .body(ResponseBody.create(exchange.bodyBytes(), contentType))
+        .build();
+  }
+
+  private static Response unavailable(Request request, String message) {
+    return new Response.Builder()
+        .request(request)
+        .protocol(Protocol.HTTP_1_1)
+        .code(599)
+        .message("Not replayable")
+        .body(ResponseBody.create("{\"message\":\"" + message + "\"}", JSON_MEDIA_TYPE))
+        .build();
+  }
+
+  private UpstreamExchange take(String route, String bodyDigest) {
+    Deque<UpstreamExchange> queue = exchangesByRoute.get(route);
+    if (queue == null) {
+      return null;
+    }
+
+    synchronized (queue) {
+      if (bodyDigest != null) {
+        Iterator<UpstreamExchange> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+          UpstreamExchange candidate = iterator.next();
+          if (bodyDigest.equals(candidate.bodyDigest)) {
+            iterator.remove();
+            return candidate;
+          }
+        }
+      }
+      return queue.pollFirst();
+    }
+  }
+
+  private void pace(long latencyMicros) throws InterruptedIOException {
+    if (speed <= 0 || latencyMicros <= 0) {
+      return;
+    }
+
+    long delayNanos = (long) (latencyMicros * 1_000 / speed);
+    try {
+      Thread.sleep(delayNanos / 1_000_000, (int) (delayNanos % 1_000_000));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Replay interrupted");
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package ai.xfloor.examples.memory.upstream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+/** One captured upstream request/response pair; serialized as a single JSON line. */
+class UpstreamExchange {
+  /** Framing headers describe the original transfer, not the decoded body that is stored. */
+  private static final Set<String> FRAMING_HEADERS =
+      Set.of("content-length", "content-encoding", "transfer-encoding", "connection");
+
+  String method;
+  String path;
+  String query;
+  String bodyDigest;
+  int status;
+  String contentType;
+  Map<String, List<String>> headers;
+  long latencyMicros;
+  String body;
+  String bodyBase64;
+  boolean truncated;
+
+  String route() {
+    return route(method, path, query);
+  }
+
+  static String route(Request request) {
+    return route(request.method(), request.url().encodedPath(), request.url().encodedQuery());
+  }
+
+  static String route(String method, String path, String query) {
+    return method + " " + path + (query == null || query.isEmpty() ? "" : "?" + query);
+  }
+
+  /**
+   * Digest of a JSON request body so replay can tell apart calls to the same route. Multipart
+   * bodies carry a random boundary and would never match, so they are left undigested.
+   */
+  static String digestOf(RequestBody body) throws IOException {
+    if (body == null || !isJson(body.contentType())) {
+      return null;
+    }
+
+    Buffer buffer = new Buffer();
+    body.writeTo(buffer);
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(buffer.readByteArray()));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  static boolean isText(MediaType mediaType) {
+    if (mediaType == null) {
+      return false;
+    }
+    return isJson(mediaType) || "text".equals(mediaType.type());
+  }
+
+  private static boolean isJson(MediaType mediaType) {
+    return mediaType != null && mediaType.subtype().toLowerCase(Locale.ROOT).contains("json");
+  }
+
+  static Map<String, List<String>> headersOf(Headers headers) {
+    Map<String, List<String>> recorded = headers.toMultimap();
+    recorded.keySet().removeIf(name -> FRAMING_HEADERS.contains(name.toLowerCase(Locale.ROOT)));
+    return recorded;
+  }
+
+  Headers replayHeaders() {
+    Headers.Builder builder = new Headers.Builder();
+    if (headers != null) {
+      headers.forEach((name, values) -> values.forEach(value -> builder.add(name, value)));
+    }
+    return builder.build();
+  }
+
+  byte[] bodyBytes() {
+    if (body != null) {
+      return body.getBytes(StandardCharsets.UTF_8);
+    }
+    if (bodyBase64 != null) {
+      return Base64.getDecoder().decode(bodyBase64);
+    }
+    return new byte[0];
+  }
+}
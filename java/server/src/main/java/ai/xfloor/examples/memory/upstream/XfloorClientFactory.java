@@ -0,0 +1,161 @@
+package ai.xfloor.examples.memory.upstream;
+
+import ai.xfloor.examples.memory.accesslog.UpstreamBytesListener;
+import ai.xfloor.examples.memory.accesslog.UpstreamTimingInterceptor;
+import ai.xfloor.examples.memory.auth.TokenIdentityCache;
+import ai.xfloor.examples.memory.auth.TokenRejectionInterceptor;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import ai.xfloor.examples.memory.tracing.UpstreamTracingInterceptor;
+import ai.xfloor.memory.client.ApiClient;
+import ai.xfloor.memory.client.JSON;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds per-request SDK clients on one shared OkHttp client, so every request reuses the same
+ * connection pool (HTTP/2 multiplexed where negotiated), TLS setup and interceptor chain: access
+ * log timing, tracing, token rejection tracking, the optional capture mode and request compression.
+ */
+@Component
+public class XfloorClientFactory {
+  private static final Logger log = LoggerFactory.getLogger(XfloorClientFactory.class);
+  private final XfloorProperties properties;
+  private final ExchangeRecorder recorder;
+  private final Interceptor captureInterceptor;
+  private final OkHttpClient httpClient;
+
+  public XfloorClientFactory(
+      XfloorProperties properties,
+      OpenTelemetry openTelemetry,
+      TokenIdentityCache tokenIdentityCache,
+      MeterRegistry meterRegistry)
+      throws IOException {
+    this.properties = properties;
+
+    XfloorProperties.Capture capture = properties.getCapture();
+    Path captureFile = Path.of(capture.getFile().trim());
+    if (capture.isRecording()) {
+      this.recorder = new ExchangeRecorder(JSON.getGson(), captureFile, capture.getMaxBodyBytes());
+      this.captureInterceptor = recorder;
+      log.info("Recording upstream xFloor exchanges to {}", captureFile.toAbsolutePath());
+    } else if (capture.isReplaying()) {
+      this.recorder = null;
+      this.captureInterceptor =
+          new ExchangeReplayer(JSON.getGson(), captureFile, capture.getReplaySpeed());
+      log.info(
+          "Replaying upstream xFloor exchanges from {} at speed {}",
+          captureFile.toAbsolutePath(),
+          capture.getReplaySpeed());
+    } else {
+      this.recorder = null;
+      this.captureInterceptor = null;
+    }
+
+    this.httpClient =
+        buildHttpClient(
+            List.of(
+                new UpstreamTimingInterceptor(),
+                new UpstreamTracingInterceptor(openTelemetry),
+                new TokenRejectionInterceptor(tokenIdentityCache)),
+            meterRegistry);
+  }
+
+  public ApiClient create(String accessToken) {
+    ApiClient client = new ApiClient(httpClient);
+    client.setBasePath(properties.getApiBaseUrl());
+
+    if (accessToken != null && !accessToken.isBlank()) {
+      client.setBearerToken(accessToken);
+    }
+
+    return client;
+  }
+
+  private OkHttpClient buildHttpClient(List<Interceptor> interceptors, MeterRegistry meterRegistry)
+      throws IOException {
+    // Let the SDK apply its TLS settings once; the resulting socket factory is then shared.
+    ApiClient template = new ApiClient();
+    template.setVerifyingSsl(properties.isVerifySslEnabled());
+
+    String caCertPath = properties.getSslCaCert();
+    if (caCertPath != null && !caCertPath.isBlank()) {
+      try (InputStream caCert = Files.newInputStream(Path.of(caCertPath.trim()))) {
+        template.setSslCaCert(caCert);
+      }
+    }
+
+    XfloorProperties.Transport transport = properties.getTransport();
+    ConnectionPool connectionPool =
+        new ConnectionPool(
+            transport.getMaxIdleConnections(),
+            transport.getKeepAlive().toMillis(),
+            TimeUnit.MILLISECONDS);
+    registerConnectionGauge(
+        meterRegistry, connectionPool, "total", ConnectionPool::connectionCount);
+    registerConnectionGauge(
+        meterRegistry, connectionPool, "idle", ConnectionPool::idleConnectionCount);
+
+    OkHttpClient.Builder builder =
+        template
+            .getHttpClient()
+            .newBuilder()
+            .connectionPool(connectionPool)
+            .protocols(protocols(transport.getHttp2()))
+            .eventListener(new UpstreamBytesListener());
+    interceptors.forEach(builder::addInterceptor);
+    if (captureInterceptor != null) {
+      builder.addInterceptor(captureInterceptor);
+    }
+    if (transport.isGzipRequests()) {
+      builder.addInterceptor(
+          new GzipRequestInterceptor(transport.getGzipThresholdBytes(), meterRegistry));
+    }
+    return builder.build();
+  }
+
+  private static void registerConnectionGauge(
+      MeterRegistry meterRegistry,
+      ConnectionPool connectionPool,
+      String state,
+      ToDoubleFunction<ConnectionPool> value) {
+    Gauge.builder("xfloor.upstream.connections", connectionPool, value)
+        .description("Open connections to the xFloor API")
+        .tag("state", state)
+        .register(meterRegistry);
+  }
+
+  private static List<Protocol> protocols(String http2Mode) {
+    String mode = http2Mode == null ? "auto" : http2Mode.trim().toLowerCase(Locale.ROOT);
+    return switch (mode) {
+      case "off" -> List.of(Protocol.HTTP_1_1);
+      case "prior-knowledge" -> List.of(Protocol.H2_PRIOR_KNOWLEDGE);
+      case "auto" -> List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+      default -> throw new IllegalArgumentException(
+          "Unsupported xfloor.transport.http2: " + http2Mode);
+    };
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    if (recorder != null) {
+      recorder.close();
+    }
+  }
+}
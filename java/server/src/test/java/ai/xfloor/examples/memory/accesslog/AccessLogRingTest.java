@@ -0,0 +1,134 @@
+package ai.xfloor.examples.memory.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AccessLogRingTest {
+  @Test
+  void roundsCapacityUpToAPowerOfTwoOfAtLeastFour() {
+    assertEquals(4, fill(new AccessLogRing(4)));
+    assertEquals(8, fill(new AccessLogRing(5)));
+    assertEquals(4, fill(new AccessLogRing(1)));
+  }
+
+  @Test
+  void dropsAndCountsEntriesWhenFull() {
+    AccessLogRing ring = new AccessLogRing(4);
+    assertEquals(4, fill(ring));
+    assertEquals(1, ring.dropped());
+
+    assertEquals(-1L, ring.claim());
+    assertEquals(-1L, ring.claim());
+    assertEquals(3, ring.dropped());
+  }
+
+  @Test
+  void drainsPublishedEntriesInClaimOrder() {
+    AccessLogRing ring = new AccessLogRing(4);
+    offer(ring, 200);
+    offer(ring, 201);
+    offer(ring, 202);
+
+    assertEquals(List.of(200, 201, 202), drainStatuses(ring));
+    assertEquals(List.of(), drainStatuses(ring));
+  }
+
+  @Test
+  void wrapsAroundAfterDraining() {
+    AccessLogRing ring = new AccessLogRing(4);
+    for (int round = 0; round < 3; round++) {
+      for (int index = 0; index < 3; index++) {
+        offer(ring, round * 10 + index);
+      }
+      assertEquals(List.of(round * 10, round * 10 + 1, round * 10 + 2), drainStatuses(ring));
+    }
+
+    // Sequences 9..12 span the end of the slot array and must still come out in order.
+    for (int index = 0; index < 4; index++) {
+      offer(ring, 100 + index);
+    }
+    assertEquals(-1L, ring.claim());
+    assertEquals(List.of(100, 101, 102, 103), drainStatuses(ring));
+    assertEquals(1, ring.dropped());
+  }
+
+  @Test
+  void drainingFreesSlotsForNewClaims() {
+    AccessLogRing ring = new AccessLogRing(4);
+    for (int status = 1; status <= 4; status++) {
+      offer(ring, status);
+    }
+    assertEquals(-1L, ring.claim());
+
+    assertEquals(List.of(1, 2, 3, 4), drainStatuses(ring));
+    offer(ring, 5);
+    assertEquals(List.of(5), drainStatuses(ring));
+  }
+
+  @Test
+  void stopsAtTheFirstUnpublishedSequence() {
+    AccessLogRing ring = new AccessLogRing(4);
+    long first = ring.claim();
+    long second = ring.claim();
+    ring.slot(second).status = 2;
+    ring.publish(second);
+
+    assertFalse(ring.hasPublished());
+    assertEquals(List.of(), drainStatuses(ring));
+
+    ring.slot(first).status = 1;
+    ring.publish(first);
+    assertTrue(ring.hasPublished());
+    assertEquals(List.of(1, 2), drainStatuses(ring));
+    assertFalse(ring.hasPublished());
+  }
+
+  @Test
+  void clearsReferencesAfterDraining() {
+    AccessLogRing ring = new AccessLogRing(2);
+    long sequence = ring.claim();
+    AccessLogEntry entry = ring.slot(sequence);
+    entry.method = "GET";
+    entry.endpoint = "/memory/threads";
+    entry.accessToken = "secret-token";
+    entry.upstreamErrorBody = "{\"error\":{}}";
+    ring.publish(sequence);
+
+    List<String> seen = new ArrayList<>();
+    ring.drain(drained -> seen.add(drained.method + " " + drained.endpoint));
+
+    assertEquals(List.of("GET /memory/threads"), seen);
+    assertNull(entry.method);
+    assertNull(entry.endpoint);
+    assertNull(entry.accessToken);
+    assertNull(entry.upstreamErrorBody);
+  }
+
+  private static int fill(AccessLogRing ring) {
+    int claimed = 0;
+    while (ring.claim() >= 0) {
+      claimed++;
+    }
+    return claimed;
+  }
+
+  private static void offer(AccessLogRing ring, int status) {
+    long sequence = ring.claim();
+    assertTrue(sequence >= 0);
+    ring.slot(sequence).status = status;
+    ring.publish(sequence);
+  }
+
+  private static List<Integer> drainStatuses(AccessLogRing ring) {
+    List<Integer> statuses = new ArrayList<>();
+    int drained = ring.drain(entry -> statuses.add(entry.status));
+    assertEquals(statuses.size(), drained);
+    return statuses;
+  }
+}
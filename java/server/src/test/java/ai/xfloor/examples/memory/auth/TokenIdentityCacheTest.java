@@ -0,0 +1,147 @@
+package ai.xfloor.examples.memory.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ai.xfloor.examples.memory.cache.CacheKeys;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class TokenIdentityCacheTest {
+  private static final String OPAQUE = "opaque-token";
+
+  private final XfloorProperties properties = new XfloorProperties();
+  private final TokenIdentityCache cache = new TokenIdentityCache(properties);
+
+  @Test
+  void unseenTokensAreUnknown() {
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check(OPAQUE));
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check(null));
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check("  "));
+  }
+
+  @Test
+  void rememberedTokensAreValid() {
+    cache.remember(OPAQUE, "user-1", "app-1");
+    assertEquals(TokenIdentityCache.Status.VALID, cache.check(OPAQUE));
+  }
+
+  @Test
+  void futureExpClaimIsValidEvenWithoutTtl() {
+    properties.getTokenCache().setTtl(Duration.ZERO);
+    String token = jwt("{\"sub\":\"u\",\"exp\":" + secondsFromNow(3600) + "}");
+
+    cache.remember(token, "user-1", "app-1");
+    assertEquals(TokenIdentityCache.Status.VALID, cache.check(token));
+  }
+
+  @Test
+  void pastExpClaimIsExpiredOnceThenForgotten() {
+    properties.getTokenCache().setTtl(Duration.ofHours(1));
+    String token = jwt("{\"exp\":" + secondsFromNow(-60) + "}");
+
+    cache.remember(token, "user-1", "app-1");
+    assertEquals(TokenIdentityCache.Status.EXPIRED, cache.check(token));
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check(token));
+  }
+
+  @Test
+  void tokensWithoutAUsableExpFallBackToTheTtl() {
+    properties.getTokenCache().setTtl(Duration.ZERO);
+    for (String token :
+        new String[] {
+          OPAQUE, jwt("{\"sub\":\"u\"}"), jwt("{\"exp\":\"soon\"}"), "a.!!not-base64!!.c"
+        }) {
+      cache.remember(token, "user-1", "app-1");
+      assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check(token), token);
+    }
+  }
+
+  @Test
+  void rejectionOverridesAValidEntry() {
+    cache.remember(OPAQUE, "user-1", "app-1");
+    cache.reject(OPAQUE);
+    assertEquals(TokenIdentityCache.Status.REJECTED, cache.check(OPAQUE));
+  }
+
+  @Test
+  void rejectionIgnoresTheExpClaimAndLastsTheRejectedTtl() {
+    properties.getTokenCache().setRejectedTtl(Duration.ZERO);
+    String token = jwt("{\"exp\":" + secondsFromNow(3600) + "}");
+
+    cache.remember(token, "user-1", "app-1");
+    cache.reject(token);
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check(token));
+  }
+
+  @Test
+  void freshSignInReplacesARejection() {
+    cache.reject(OPAQUE);
+    cache.remember(OPAQUE, "user-1", "app-1");
+    assertEquals(TokenIdentityCache.Status.VALID, cache.check(OPAQUE));
+  }
+
+  @Test
+  void identityKeyUsesTheUserOfAKnownToken() {
+    cache.remember(OPAQUE, "user-1", "app-1");
+    cache.remember("other-session", "user-1", "app-1");
+
+    assertEquals("user:app-1/user-1", cache.identityKey(OPAQUE));
+    assertEquals(cache.identityKey(OPAQUE), cache.identityKey("other-session"));
+  }
+
+  @Test
+  void identityKeyFallsBackToTheTokenDigest() {
+    assertEquals(CacheKeys.tokenIdentity(OPAQUE), cache.identityKey(OPAQUE));
+    assertEquals(cache.identityKey(OPAQUE), cache.identityKey("  " + OPAQUE + " "));
+    assertEquals("anonymous", cache.identityKey(null));
+
+    cache.remember("no-user", null, "app-1");
+    assertEquals(CacheKeys.tokenIdentity("no-user"), cache.identityKey("no-user"));
+
+    cache.remember(OPAQUE, "user-1", "app-1");
+    cache.reject(OPAQUE);
+    assertEquals(CacheKeys.tokenIdentity(OPAQUE), cache.identityKey(OPAQUE));
+  }
+
+  @Test
+  void identityKeyIgnoresExpiredEntries() {
+    String token = jwt("{\"exp\":" + secondsFromNow(-60) + "}");
+    cache.remember(token, "user-1", "app-1");
+    assertEquals(CacheKeys.tokenIdentity(token), cache.identityKey(token));
+  }
+
+  @Test
+  void disabledCacheRemembersNothing() {
+    properties.getTokenCache().setEnabled(false);
+    cache.remember(OPAQUE, "user-1", "app-1");
+    cache.reject("bad");
+
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check(OPAQUE));
+    assertEquals(TokenIdentityCache.Status.UNKNOWN, cache.check("bad"));
+    assertEquals(CacheKeys.tokenIdentity(OPAQUE), cache.identityKey(OPAQUE));
+  }
+
+  @Test
+  void fullCacheMakesRoomForNewTokens() {
+    properties.getTokenCache().setMaxEntries(16);
+    for (int index = 0; index < 40; index++) {
+      cache.remember("token-" + index, "user-" + index, "app");
+    }
+    assertEquals(TokenIdentityCache.Status.VALID, cache.check("token-39"));
+  }
+
+  private static long secondsFromNow(long seconds) {
+    return System.currentTimeMillis() / 1000 + seconds;
+  }
+
+  private static String jwt(String claims) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+        + "."
+        + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8))
+        + ".signature";
+  }
+}
@@ -0,0 +1,80 @@
+package ai.xfloor.examples.memory.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class UpstreamCacheTest {
+  private final LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+
+  @Test
+  void cachesLoadedValuesUntilTheFloorIsInvalidated() throws Exception {
+    UpstreamCache cache = new UpstreamCache(new XfloorProperties(), new LocalCacheBackend(16), bus);
+    AtomicInteger loads = new AtomicInteger();
+    String key = CacheKeys.floor("app", "floor");
+
+    assertEquals(1, cache.getOrLoad(key, "info", loads::incrementAndGet));
+    assertEquals(1, cache.getOrLoad(key, "info", loads::incrementAndGet));
+
+    cache.invalidateFloor("app", "floor");
+    assertEquals(2, cache.getOrLoad(key, "info", loads::incrementAndGet));
+  }
+
+  @Test
+  void failingBackendFallsThroughToTheLoader() throws Exception {
+    UpstreamCache cache = new UpstreamCache(new XfloorProperties(), new FailingBackend(), bus);
+    AtomicInteger loads = new AtomicInteger();
+    String key = CacheKeys.floor("app", "floor");
+
+    assertEquals(1, cache.getOrLoad(key, "info", loads::incrementAndGet));
+    assertEquals(2, cache.getOrLoad(key, "info", loads::incrementAndGet));
+  }
+
+  @Test
+  void failingBackendDoesNotFailInvalidation() {
+    UpstreamCache cache = new UpstreamCache(new XfloorProperties(), new FailingBackend(), bus);
+    List<List<String>> delivered = new ArrayList<>();
+    bus.subscribe((keys, fromPeer) -> delivered.add(keys));
+
+    cache.invalidateFloor("app", "floor");
+
+    assertEquals(List.of(List.of(CacheKeys.floor("app", "floor"))), delivered);
+  }
+
+  @Test
+  void deliversToEveryListenerWhenOneThrows() {
+    List<String> delivered = new ArrayList<>();
+    bus.subscribe(
+        (keys, fromPeer) -> {
+          throw new IllegalStateException("boom");
+        });
+    bus.subscribe((keys, fromPeer) -> delivered.addAll(keys));
+
+    bus.publish(List.of("a/"));
+    bus.receive(List.of("b/"));
+
+    assertEquals(List.of("a/", "b/"), delivered);
+  }
+
+  private static final class FailingBackend implements CacheBackend {
+    @Override
+    public Object get(String invalidationKey, String entryKey) {
+      throw new IllegalStateException("backend down");
+    }
+
+    @Override
+    public void put(String invalidationKey, String entryKey, Object value, Duration ttl) {
+      throw new IllegalStateException("backend down");
+    }
+
+    @Override
+    public void evict(String invalidationKey) {
+      throw new IllegalStateException("backend down");
+    }
+  }
+}
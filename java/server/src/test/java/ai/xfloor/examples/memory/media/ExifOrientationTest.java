@@ -0,0 +1,184 @@
+package ai.xfloor.examples.memory.media;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class ExifOrientationTest {
+  private static final int WIDTH = 3;
+  private static final int HEIGHT = 2;
+
+  @Test
+  void readsEveryOrientationInBothByteOrders() throws IOException {
+    for (int orientation = 1; orientation <= 8; orientation++) {
+      assertEquals(orientation, read(jpeg(app1(orientation, true))));
+      assertEquals(orientation, read(jpeg(app1(orientation, false))));
+    }
+  }
+
+  @Test
+  void findsExifAfterOtherSegments() throws IOException {
+    byte[] app0 = segment(0xFFE0, latin1("JFIF\0 padding"));
+    byte[] xmp = segment(0xFFE1, latin1("http://ns.adobe.com/xap/1.0/\0<x/>"));
+    assertEquals(6, read(jpeg(app0, xmp, app1(6, false))));
+  }
+
+  @Test
+  void defaultsToNormal() throws IOException {
+    assertEquals(ExifOrientation.NORMAL, read(new byte[] {(byte) 0x89, 'P', 'N', 'G'}));
+    assertEquals(ExifOrientation.NORMAL, read(jpeg()));
+    assertEquals(ExifOrientation.NORMAL, read(jpeg(app1(9, true))));
+    assertEquals(ExifOrientation.NORMAL, read(jpeg(app1(0, true))));
+    assertEquals(ExifOrientation.NORMAL, read(new byte[] {(byte) 0xFF, (byte) 0xD8}));
+
+    byte[] truncated = jpeg(app1(6, true));
+    byte[] cut = new byte[truncated.length - 20];
+    System.arraycopy(truncated, 0, cut, 0, cut.length);
+    assertEquals(ExifOrientation.NORMAL, read(cut));
+  }
+
+  @Test
+  void stopsAtStartOfScan() throws IOException {
+    byte[] scan = segment(0xFFDA, new byte[4]);
+    assertEquals(ExifOrientation.NORMAL, read(jpeg(scan, app1(6, true))));
+  }
+
+  @Test
+  void normalOrientationKeepsTheImage() {
+    BufferedImage image = numbered();
+    assertSame(image, ExifOrientation.apply(image, 1));
+    assertSame(image, ExifOrientation.apply(image, 0));
+    assertSame(image, ExifOrientation.apply(image, 9));
+  }
+
+  @Test
+  void mirrorsHorizontally() {
+    assertOriented(2, WIDTH, HEIGHT, (x, y) -> number(WIDTH - 1 - x, y));
+  }
+
+  @Test
+  void rotates180() {
+    assertOriented(3, WIDTH, HEIGHT, (x, y) -> number(WIDTH - 1 - x, HEIGHT - 1 - y));
+  }
+
+  @Test
+  void mirrorsVertically() {
+    assertOriented(4, WIDTH, HEIGHT, (x, y) -> number(x, HEIGHT - 1 - y));
+  }
+
+  @Test
+  void transposes() {
+    assertOriented(5, HEIGHT, WIDTH, (x, y) -> number(y, x));
+  }
+
+  @Test
+  void rotates90Clockwise() {
+    assertOriented(6, HEIGHT, WIDTH, (x, y) -> number(y, HEIGHT - 1 - x));
+  }
+
+  @Test
+  void transverses() {
+    assertOriented(7, HEIGHT, WIDTH, (x, y) -> number(WIDTH - 1 - y, HEIGHT - 1 - x));
+  }
+
+  @Test
+  void rotates90CounterClockwise() {
+    assertOriented(8, HEIGHT, WIDTH, (x, y) -> number(WIDTH - 1 - y, x));
+  }
+
+  /** {@code expected} maps an output pixel to the number of the source pixel that lands there. */
+  private static void assertOriented(
+      int orientation, int width, int height, PixelMapping expected) {
+    BufferedImage oriented = ExifOrientation.apply(numbered(), orientation);
+
+    assertEquals(width, oriented.getWidth());
+    assertEquals(height, oriented.getHeight());
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        assertEquals(
+            expected.sourceNumber(x, y),
+            oriented.getRGB(x, y) & 0xFFFFFF,
+            "orientation " + orientation + " at (" + x + "," + y + ")");
+      }
+    }
+  }
+
+  /** A {@value #WIDTH}x{@value #HEIGHT} image whose pixel colors identify their position. */
+  private static BufferedImage numbered() {
+    BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        image.setRGB(x, y, number(x, y));
+      }
+    }
+    return image;
+  }
+
+  private static int number(int x, int y) {
+    return (x + 1) * 0x10 + (y + 1) * 0x100000;
+  }
+
+  private static int read(byte[] bytes) throws IOException {
+    return ExifOrientation.read(new ByteArrayInputStream(bytes));
+  }
+
+  private static byte[] jpeg(byte[]... segments) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(0xFF);
+    out.write(0xD8);
+    for (byte[] segment : segments) {
+      out.writeBytes(segment);
+    }
+    out.write(0xFF);
+    out.write(0xD9);
+    return out.toByteArray();
+  }
+
+  /** An APP1 segment holding a TIFF header and one IFD with a single orientation entry. */
+  private static byte[] app1(int orientation, boolean littleEndian) {
+    ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+    tiff.writeBytes(latin1("Exif\0\0"));
+    tiff.writeBytes(latin1(littleEndian ? "II" : "MM"));
+    write(tiff, 0x2A, 2, littleEndian);
+    write(tiff, 8, 4, littleEndian);
+    write(tiff, 1, 2, littleEndian);
+    write(tiff, 0x0112, 2, littleEndian);
+    write(tiff, 3, 2, littleEndian);
+    write(tiff, 1, 4, littleEndian);
+    write(tiff, orientation, 2, littleEndian);
+    write(tiff, 0, 2, littleEndian);
+    write(tiff, 0, 4, littleEndian);
+    return segment(0xFFE1, tiff.toByteArray());
+  }
+
+  private static byte[] segment(int marker, byte[] payload) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    write(out, marker, 2, false);
+    write(out, payload.length + 2, 2, false);
+    out.writeBytes(payload);
+    return out.toByteArray();
+  }
+
+  private static byte[] latin1(String value) {
+    return value.getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  private static void write(
+      ByteArrayOutputStream out, long value, int bytes, boolean littleEndian) {
+    for (int index = 0; index < bytes; index++) {
+      int shift = littleEndian ? index * 8 : (bytes - 1 - index) * 8;
+      out.write((int) (value >>> shift) & 0xFF);
+    }
+  }
+
+  @FunctionalInterface
+  private interface PixelMapping {
+    int sourceNumber(int x, int y);
+  }
+}
@@ -0,0 +1,97 @@
+package ai.xfloor.examples.memory.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import ai.xfloor.examples.memory.auth.TokenIdentityCache;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RateLimitFilterTest {
+  private final RateLimitFilter filter = newFilter();
+
+  @AfterEach
+  void close() {
+    filter.close();
+  }
+
+  @Test
+  void pathParametersDoNotSkipAuthLimits() throws Exception {
+    assertPassed(post("/memory/auth/sign-in/email"));
+    assertLimited(post("/memory/auth/sign-in/email;x=1"));
+    assertLimited(post("/memory/auth;x=1/sign-in/email"));
+  }
+
+  @Test
+  void percentEncodingDoesNotSkipQueryLimits() throws Exception {
+    assertPassed(post("/memory/query"));
+    assertLimited(post("/memory/%71uery"));
+    assertLimited(post("/memory//query"));
+  }
+
+  @Test
+  void honoursTheContextPath() throws Exception {
+    MockHttpServletRequest first = request("/api/memory/query;jsessionid=1");
+    first.setContextPath("/api");
+    assertPassed(filter(first));
+
+    MockHttpServletRequest second = request("/api/memory/query");
+    second.setContextPath("/api");
+    assertLimited(filter(second));
+  }
+
+  @Test
+  void otherPathsAreNotLimited() throws Exception {
+    assertPassed(post("/memory/threads"));
+    assertPassed(post("/memory/threads;x=1"));
+    assertPassed(post("/memory/query/extra"));
+  }
+
+  private Outcome post(String uri) throws ServletException, IOException {
+    return filter(request(uri));
+  }
+
+  private Outcome filter(MockHttpServletRequest request) throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(request, response, chain);
+    return new Outcome(response, chain);
+  }
+
+  private static MockHttpServletRequest request(String uri) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+    request.setContentType("application/json");
+    request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+
+  private static void assertPassed(Outcome outcome) {
+    assertNotNull(outcome.chain().getRequest());
+    assertEquals(200, outcome.response().getStatus());
+  }
+
+  private static void assertLimited(Outcome outcome) {
+    assertNull(outcome.chain().getRequest());
+    assertEquals(429, outcome.response().getStatus());
+  }
+
+  /** One request per IP every 1000 seconds, so the second matching request is always limited. */
+  private static RateLimitFilter newFilter() {
+    XfloorProperties properties = new XfloorProperties();
+    properties.getRateLimit().getIp().setPermitsPerSecond(0.001);
+    properties.getRateLimit().getIp().setBurst(1);
+    return new RateLimitFilter(
+        properties, new TokenIdentityCache(properties), new SimpleMeterRegistry());
+  }
+
+  private record Outcome(MockHttpServletResponse response, MockFilterChain chain) {}
+}
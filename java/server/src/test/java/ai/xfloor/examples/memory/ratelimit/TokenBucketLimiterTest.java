@@ -0,0 +1,155 @@
+package ai.xfloor.examples.memory.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketLimiterTest {
+  private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long START = 5_000_000_000L;
+
+  private final TokenBucketLimiter limiter = new TokenBucketLimiter(1_000);
+  private final XfloorProperties.RateLimit.Limit tenPerSecondBurstThree = limit(10, 3);
+
+  @Test
+  void grantsTheFullBurstThenReportsTheWaitForTheNextToken() {
+    for (int attempt = 0; attempt < 3; attempt++) {
+      assertEquals(0, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START));
+    }
+    assertEquals(INTERVAL, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START));
+    assertEquals(INTERVAL - 1, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START + 1));
+  }
+
+  @Test
+  void rejectedAttemptsDoNotConsumeTokens() {
+    exhaust("ip:a", START);
+    for (int attempt = 0; attempt < 5; attempt++) {
+      assertTrue(limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START) > 0);
+    }
+    assertEquals(0, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START + INTERVAL));
+  }
+
+  @Test
+  void refillsOneTokenPerInterval() {
+    exhaust("ip:a", START);
+
+    assertEquals(0, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START + INTERVAL));
+    assertTrue(limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START + INTERVAL) > 0);
+
+    long later = START + 2 * INTERVAL;
+    assertEquals(0, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, later));
+    assertTrue(limiter.tryAcquire("ip:a", tenPerSecondBurstThree, later) > 0);
+  }
+
+  @Test
+  void idleBucketRefillsOnlyUpToTheBurst() {
+    exhaust("ip:a", START);
+
+    long muchLater = START + TimeUnit.SECONDS.toNanos(60);
+    for (int attempt = 0; attempt < 3; attempt++) {
+      assertEquals(0, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, muchLater));
+    }
+    assertTrue(limiter.tryAcquire("ip:a", tenPerSecondBurstThree, muchLater) > 0);
+  }
+
+  @Test
+  void keysHaveIndependentBuckets() {
+    exhaust("ip:a", START);
+    assertEquals(0, limiter.tryAcquire("ip:b", tenPerSecondBurstThree, START));
+    assertEquals(0, limiter.tryAcquire("app:a", tenPerSecondBurstThree, START));
+  }
+
+  @Test
+  void burstOfOneAllowsOneRequestPerInterval() {
+    XfloorProperties.RateLimit.Limit strict = limit(10, 1);
+    assertEquals(0, limiter.tryAcquire("ip:a", strict, START));
+    assertEquals(INTERVAL, limiter.tryAcquire("ip:a", strict, START));
+    assertEquals(0, limiter.tryAcquire("ip:a", strict, START + INTERVAL));
+  }
+
+  @Test
+  void refundReturnsATakenToken() {
+    exhaust("ip:a", START);
+    limiter.refund("ip:a", tenPerSecondBurstThree);
+
+    assertEquals(0, limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START));
+    assertTrue(limiter.tryAcquire("ip:a", tenPerSecondBurstThree, START) > 0);
+  }
+
+  @Test
+  void refundOfAnUnknownKeyIsIgnored() {
+    limiter.refund("ip:unknown", tenPerSecondBurstThree);
+    exhaust("ip:unknown", START);
+  }
+
+  @Test
+  void newKeysShareAnOverflowBucketWhileFull() {
+    TokenBucketLimiter small = new TokenBucketLimiter(1);
+    assertEquals(0, small.tryAcquire("ip:a", tenPerSecondBurstThree, START));
+
+    assertEquals(0, small.tryAcquire("ip:b", tenPerSecondBurstThree, START));
+    assertEquals(0, small.tryAcquire("ip:c", tenPerSecondBurstThree, START));
+    assertEquals(0, small.tryAcquire("ip:d", tenPerSecondBurstThree, START));
+    assertTrue(small.tryAcquire("ip:e", tenPerSecondBurstThree, START) > 0);
+
+    // Keys that already have a bucket keep it.
+    assertEquals(0, small.tryAcquire("ip:a", tenPerSecondBurstThree, START));
+  }
+
+  @Test
+  void overflowBucketsAreSeparatePerLimit() {
+    TokenBucketLimiter small = new TokenBucketLimiter(1);
+    XfloorProperties.RateLimit.Limit other = limit(10, 1);
+    assertEquals(0, small.tryAcquire("ip:a", tenPerSecondBurstThree, START));
+
+    assertEquals(0, small.tryAcquire("app:b", other, START));
+    assertTrue(small.tryAcquire("app:c", other, START) > 0);
+    assertEquals(0, small.tryAcquire("ip:b", tenPerSecondBurstThree, START));
+  }
+
+  @Test
+  void refundReturnsAnOverflowToken() {
+    TokenBucketLimiter small = new TokenBucketLimiter(1);
+    XfloorProperties.RateLimit.Limit strict = limit(10, 1);
+    assertEquals(0, small.tryAcquire("ip:a", strict, START));
+    assertEquals(0, small.tryAcquire("ip:b", strict, START));
+    assertTrue(small.tryAcquire("ip:c", strict, START) > 0);
+
+    small.refund("ip:b", strict);
+    assertEquals(0, small.tryAcquire("ip:c", strict, START));
+  }
+
+  @Test
+  void sweepForgetsOnlyFullBuckets() {
+    TokenBucketLimiter small = new TokenBucketLimiter(2);
+    XfloorProperties.RateLimit.Limit strict = limit(10, 1);
+    assertEquals(0, small.tryAcquire("ip:a", strict, START));
+    long later = START + TimeUnit.SECONDS.toNanos(1);
+    assertEquals(0, small.tryAcquire("ip:b", strict, later));
+
+    small.evictFullBuckets(later);
+
+    // ip:a was full again and is gone, so ip:c gets its own bucket, not the overflow one.
+    assertEquals(0, small.tryAcquire("ip:c", strict, later));
+    assertEquals(0, small.tryAcquire("ip:d", strict, later));
+    assertTrue(small.tryAcquire("ip:b", strict, later) > 0);
+    assertTrue(small.tryAcquire("ip:c", strict, later) > 0);
+  }
+
+  private void exhaust(String key, long nowNanos) {
+    for (int attempt = 0; attempt < 3; attempt++) {
+      assertEquals(0, limiter.tryAcquire(key, tenPerSecondBurstThree, nowNanos));
+    }
+    assertTrue(limiter.tryAcquire(key, tenPerSecondBurstThree, nowNanos) > 0);
+  }
+
+  private static XfloorProperties.RateLimit.Limit limit(double permitsPerSecond, int burst) {
+    XfloorProperties.RateLimit.Limit limit = new XfloorProperties.RateLimit.Limit();
+    limit.setPermitsPerSecond(permitsPerSecond);
+    limit.setBurst(burst);
+    return limit;
+  }
+}
@@ -0,0 +1,118 @@
+package ai.xfloor.examples.memory.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class FloorEventIndexTest {
+  private final FloorEventIndex index =
+      FloorEventIndex.of(
+          List.of(
+              event("a", "Hello world", "Morning walk #travel", 1_000, List.of("Diary"), "POST"),
+              event("b", "Help wanted", "<p>A <b>hiking</b> buddy</p>", 2_000, null, "POST"),
+              event("c", "Weekend", "Trip photos", 3_000, List.of("travel"), "ALBUM"),
+              event("d", "World news", "Nothing new", 3_000, null, null)));
+
+  @Test
+  void matchesTextPrefixesAgainstTitleAndStrippedHtml() {
+    assertEquals(List.of("b", "a"), ids(search(List.of("hel"), List.of(), null, null)));
+    assertEquals(List.of("b"), ids(search(List.of("hik"), List.of(), null, null)));
+  }
+
+  @Test
+  void requiresEveryPrefix() {
+    assertEquals(List.of("a"), ids(search(List.of("hel", "WOR"), List.of(), null, null)));
+    assertEquals(List.of(), ids(search(List.of("hel", "news"), List.of(), null, null)));
+  }
+
+  @Test
+  void unknownPrefixMatchesNothing() {
+    assertEquals(List.of(), ids(search(List.of("zzz"), List.of(), null, null)));
+  }
+
+  @Test
+  void matchesTagsHashtagsBlockAndMediaTypes() {
+    assertEquals(List.of("c", "a"), ids(search(List.of(), List.of("#Travel"), null, null)));
+    assertEquals(List.of("a"), ids(search(List.of(), List.of("diary"), null, null)));
+    assertEquals(List.of("c"), ids(search(List.of(), List.of("block:album"), null, null)));
+    assertEquals(List.of("c"), ids(search(List.of(), List.of("media:image"), null, null)));
+    assertEquals(List.of("a"), ids(search(List.of("morning"), List.of("travel"), null, null)));
+    assertEquals(List.of(), ids(search(List.of(), List.of("unknown"), null, null)));
+  }
+
+  @Test
+  void returnsNewestFirstWithinLimit() {
+    List<String> all = ids(search(List.of(), List.of(), null, null));
+    assertEquals(4, all.size());
+    assertEquals("a", all.get(3));
+    assertEquals("b", all.get(2));
+
+    assertEquals(2, index.search(List.of(), List.of(), null, null, 2).size());
+    assertEquals(List.of(), ids(index.search(List.of(), List.of(), null, null, 0)));
+  }
+
+  @Test
+  void timeRangeIsInclusiveOnBothEnds() {
+    assertEquals(List.of("b"), ids(search(List.of(), List.of(), 2_000L, 2_000L)));
+    assertEquals(List.of("b", "a"), ids(search(List.of(), List.of(), 1_000L, 2_000L)));
+  }
+
+  @Test
+  void lowerBoundExcludesEventsOneMillisecondEarlier() {
+    assertEquals(List.of("b"), ids(search(List.of(), List.of(), 1_001L, 2_000L)));
+    assertEquals(List.of("b", "a"), ids(search(List.of(), List.of(), 999L, 2_000L)));
+  }
+
+  @Test
+  void openEndedRanges() {
+    assertEquals(List.of("a"), ids(search(List.of(), List.of(), null, 1_999L)));
+    assertEquals(2, search(List.of(), List.of(), 3_000L, null).size());
+    assertEquals(List.of(), ids(search(List.of(), List.of(), 3_001L, null)));
+  }
+
+  @Test
+  void emptyIndexReturnsNothing() {
+    FloorEventIndex empty = FloorEventIndex.of(List.of());
+    assertEquals(List.of(), empty.search(List.of("a"), List.of("b"), 0L, 10L, 10));
+    assertEquals(List.of(), empty.search(List.of(), List.of(), null, null, 10));
+  }
+
+  @Test
+  void readsCreatedAtFromNumbersAndStrings() {
+    assertEquals(42L, FloorEventIndex.createdAtMs(Map.of("created_at_ms", 42)));
+    assertEquals(42L, FloorEventIndex.createdAtMs(Map.of("created_at_ms", " 42 ")));
+    assertEquals(0L, FloorEventIndex.createdAtMs(Map.of("created_at_ms", "soon")));
+    assertEquals(0L, FloorEventIndex.createdAtMs(Map.of()));
+  }
+
+  private List<Map<String, Object>> search(
+      List<String> prefixes, List<String> tags, Long fromMs, Long toMs) {
+    return index.search(prefixes, tags, fromMs, toMs, 50);
+  }
+
+  private static List<String> ids(List<Map<String, Object>> events) {
+    return events.stream().map(event -> String.valueOf(event.get("id"))).toList();
+  }
+
+  private static Map<String, Object> event(
+      String id, String title, String text, long createdAtMs, List<String> tags, String block) {
+    Map<String, Object> event = new LinkedHashMap<>();
+    event.put("id", id);
+    event.put("title", title);
+    event.put("text", text);
+    event.put("created_at_ms", createdAtMs);
+    if (tags != null) {
+      event.put("tags", tags);
+    }
+    if (block != null) {
+      event.put("block_type", block);
+    }
+    if ("ALBUM".equals(block)) {
+      event.put("media", List.of(Map.of("type", "IMAGE")));
+    }
+    return event;
+  }
+}
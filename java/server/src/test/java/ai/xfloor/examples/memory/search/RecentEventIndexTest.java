@@ -0,0 +1,116 @@
+package ai.xfloor.examples.memory.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.xfloor.examples.memory.cache.CacheKeys;
+import ai.xfloor.examples.memory.cache.LoopbackInvalidationBus;
+import ai.xfloor.examples.memory.config.XfloorProperties;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RecentEventIndexTest {
+  private final LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+  private final RecentEventIndex index = new RecentEventIndex(new XfloorProperties(), bus);
+
+  @Test
+  void freshUpstreamListReplacesTheView() {
+    index.ingest("app", "floor", null, response(event("e1", "First", 1_000)));
+    index.ingest("app", "floor", null, response(event("e2", "Second", 2_000)));
+
+    assertEquals(List.of("e2"), ids(all()));
+  }
+
+  @Test
+  void emptyUpstreamListClearsTheView() {
+    index.ingest("app", "floor", null, response(event("e1", "First", 1_000)));
+    index.ingest("app", "floor", null, response());
+
+    assertEquals(List.of(), ids(all()));
+  }
+
+  @Test
+  void pendingEventsSurviveARebuildUntilUpstreamReturnsThem() {
+    index.ingest("app", "floor", null, response(event("e1", "First", 1_000)));
+    index.recordCreated("app", inputInfo("Fresh note"));
+
+    index.ingest("app", "floor", null, response(event("e1", "First", 1_000)));
+    List<Map<String, Object>> pending = all();
+    assertEquals(2, pending.size());
+    assertTrue(
+        String.valueOf(pending.get(0).get("event_id")).startsWith(RecentEventIndex.PENDING_PREFIX));
+
+    long now = System.currentTimeMillis();
+    index.ingest(
+        "app",
+        "floor",
+        null,
+        response(event("e1", "First", 1_000), event("e3", "Fresh note", now)));
+    assertEquals(List.of("e3", "e1"), ids(all()));
+  }
+
+  @Test
+  void recordsTheBlockIdFromBid() {
+    index.ingest("app", "floor", null, response());
+    Map<String, Object> inputInfo = inputInfo("Fresh note");
+    inputInfo.put("BID", "1765960948723");
+    inputInfo.put("block_type", "0");
+    index.recordCreated("app", inputInfo);
+
+    Map<String, Object> pending = all().get(0);
+    assertEquals("1765960948723", pending.get("block_id"));
+    assertEquals("0", pending.get("block_type"));
+  }
+
+  @Test
+  void recordCreatedOnlyTouchesExistingViews() {
+    index.recordCreated("app", inputInfo("Fresh note"));
+
+    assertNull(index.search("app", "floor", null, List.of(), List.of(), null, null, 50));
+  }
+
+  @Test
+  void peerInvalidationDropsTheView() {
+    index.ingest("app", "floor", null, response(event("e1", "First", 1_000)));
+
+    bus.publish(List.of(CacheKeys.floor("app", "floor")));
+    assertTrue(index.contains("app", "floor", null));
+
+    bus.receive(List.of(CacheKeys.floor("app", "floor")));
+    assertFalse(index.contains("app", "floor", null));
+  }
+
+  private List<Map<String, Object>> all() {
+    return index.search("app", "floor", null, List.of(), List.of(), null, null, 50);
+  }
+
+  private static List<String> ids(List<Map<String, Object>> events) {
+    return events.stream().map(event -> String.valueOf(event.get("event_id"))).toList();
+  }
+
+  private static Map<String, Object> response(Map<?, ?>... events) {
+    return Map.of("items", List.of(events));
+  }
+
+  private static Map<String, Object> event(String id, String title, long createdAtMs) {
+    Map<String, Object> event = new LinkedHashMap<>();
+    event.put("event_id", id);
+    event.put("title", title);
+    event.put("text", "Body");
+    event.put("created_at_ms", String.valueOf(createdAtMs));
+    return event;
+  }
+
+  private static Map<String, Object> inputInfo(String title) {
+    Map<String, Object> inputInfo = new LinkedHashMap<>();
+    inputInfo.put("floor_id", "floor");
+    inputInfo.put("user_id", "user");
+    inputInfo.put("title", title);
+    inputInfo.put("description", "Body");
+    return inputInfo;
+  }
+}
@@ -0,0 +1,188 @@
+package ai.xfloor.examples.memory.upstream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExchangeReplayerTest {
+  private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+  private static final String BASE_URL = "http://xfloor.test";
+
+  private final Gson gson = new Gson();
+
+  @TempDir Path dir;
+
+  @Test
+  void matchesOnMethodAndRoute() throws IOException {
+    UpstreamExchange withQuery = exchange("GET", "/api/floors/f1", 200, "{\"floor\":\"query\"}");
+    withQuery.query = "app_id=a";
+    OkHttpClient client =
+        replaying(
+            exchange("GET", "/api/floors/f1", 200, "{\"floor\":\"get\"}"),
+            exchange("POST", "/api/floors/f1", 201, "{\"floor\":\"post\"}"),
+            withQuery);
+
+    assertReplayed(client, get("/api/floors/f1?app_id=a"), 200, "{\"floor\":\"query\"}");
+    assertReplayed(client, post("/api/floors/f1", "{}"), 201, "{\"floor\":\"post\"}");
+    assertReplayed(client, get("/api/floors/f1"), 200, "{\"floor\":\"get\"}");
+  }
+
+  @Test
+  void prefersTheExchangeWithTheSameBodyDigest() throws IOException {
+    OkHttpClient client =
+        replaying(
+            query("{\"q\":\"a\"}", "{\"answer\":\"a\"}"),
+            query("{\"q\":\"b\"}", "{\"answer\":\"b\"}"));
+
+    assertReplayed(client, post("/api/query", "{\"q\":\"b\"}"), 200, "{\"answer\":\"b\"}");
+    assertReplayed(client, post("/api/query", "{\"q\":\"a\"}"), 200, "{\"answer\":\"a\"}");
+  }
+
+  @Test
+  void fallsBackToRecordedOrderWithoutADigestMatch() throws IOException {
+    OkHttpClient client =
+        replaying(query("{\"q\":\"a\"}", "{\"n\":1}"), query("{\"q\":\"b\"}", "{\"n\":2}"));
+
+    assertReplayed(client, post("/api/query", "{\"q\":\"other\"}"), 200, "{\"n\":1}");
+    assertReplayed(client, post("/api/query", "{\"q\":\"other\"}"), 200, "{\"n\":2}");
+  }
+
+  @Test
+  void answers599WhenNothingMatches() throws IOException {
+    OkHttpClient client = replaying(exchange("GET", "/api/a", 200, "{}"));
+
+    assertUnavailable(client, get("/api/b"));
+    assertUnavailable(client, post("/api/a", "{}"));
+
+    assertReplayed(client, get("/api/a"), 200, "{}");
+    assertUnavailable(client, get("/api/a"));
+  }
+
+  @Test
+  void replaysStatusAndHeaders() throws IOException {
+    UpstreamExchange exchange = exchange("POST", "/api/sign-in", 401, "{\"error\":{}}");
+    exchange.headers = Map.of("X-Request-Id", List.of("r-1"), "Set-Cookie", List.of("a", "b"));
+    OkHttpClient client = replaying(exchange);
+
+    try (Response response = client.newCall(post("/api/sign-in", "{}")).execute()) {
+      assertEquals(401, response.code());
+      assertEquals("r-1", response.header("X-Request-Id"));
+      assertEquals(List.of("a", "b"), response.headers("Set-Cookie"));
+      assertEquals("{\"error\":{}}", response.body().string());
+    }
+  }
+
+  @Test
+  void recordsBodiesUpToTheLimitAndMarksLargerOnesTruncated() throws IOException {
+    Path file = dir.resolve("capture.jsonl");
+    try (ExchangeRecorder recorder = new ExchangeRecorder(gson, file, 8)) {
+      OkHttpClient client =
+          new OkHttpClient.Builder()
+              .addInterceptor(recorder)
+              .addInterceptor(ExchangeReplayerTest::respondBySize)
+              .build();
+      client.newCall(get("/api/fits")).execute().close();
+      client.newCall(get("/api/large")).execute().close();
+    }
+
+    List<UpstreamExchange> recorded = new ArrayList<>();
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      recorded.add(gson.fromJson(line, UpstreamExchange.class));
+    }
+    assertEquals(2, recorded.size());
+    assertFalse(recorded.get(0).truncated);
+    assertEquals("12345678", recorded.get(0).body);
+    assertTrue(recorded.get(1).truncated);
+    assertNull(recorded.get(1).body);
+    assertNull(recorded.get(1).bodyBase64);
+
+    OkHttpClient replay = replayingFile(file);
+    assertReplayed(replay, get("/api/fits"), 200, "12345678");
+    assertUnavailable(replay, get("/api/large"));
+  }
+
+  private OkHttpClient replaying(UpstreamExchange... exchanges) throws IOException {
+    Path file = dir.resolve("replay.jsonl");
+    List<String> lines = new ArrayList<>();
+    for (UpstreamExchange exchange : exchanges) {
+      lines.add(gson.toJson(exchange));
+    }
+    Files.write(file, lines, StandardCharsets.UTF_8);
+    return replayingFile(file);
+  }
+
+  private OkHttpClient replayingFile(Path file) throws IOException {
+    return new OkHttpClient.Builder().addInterceptor(new ExchangeReplayer(gson, file, 0)).build();
+  }
+
+  private static void assertReplayed(
+      OkHttpClient client, Request request, int status, String body) throws IOException {
+    try (Response response = client.newCall(request).execute()) {
+      assertEquals(status, response.code());
+      assertEquals(body, response.body().string());
+    }
+  }
+
+  private static void assertUnavailable(OkHttpClient client, Request request) throws IOException {
+    try (Response response = client.newCall(request).execute()) {
+      assertEquals(599, response.code());
+    }
+  }
+
+  /** Answers {@code /fits} with exactly 8 bytes and anything else with 9. */
+  private static Response respondBySize(Interceptor.Chain chain) {
+    String body = chain.request().url().encodedPath().endsWith("/fits") ? "12345678" : "123456789";
+    return new Response.Builder()
+        .request(chain.request())
+        .protocol(Protocol.HTTP_1_1)
+        .code(200)
+        .message("OK")
+        .body(ResponseBody.create(body, JSON))
+        .build();
+  }
+
+  private static UpstreamExchange query(String requestJson, String responseJson)
+      throws IOException {
+    UpstreamExchange exchange = exchange("POST", "/api/query", 200, responseJson);
+    exchange.bodyDigest = UpstreamExchange.digestOf(RequestBody.create(requestJson, JSON));
+    return exchange;
+  }
+
+  private static UpstreamExchange exchange(String method, String path, int status, String body) {
+    UpstreamExchange exchange = new UpstreamExchange();
+    exchange.method = method;
+    exchange.path = path;
+    exchange.status = status;
+    exchange.contentType = JSON.toString();
+    exchange.body = body;
+    return exchange;
+  }
+
+  private static Request get(String pathAndQuery) {
+    return new Request.Builder().url(BASE_URL + pathAndQuery).get().build();
+  }
+
+  private static Request post(String path, String json) {
+    return new Request.Builder().url(BASE_URL + path).post(RequestBody.create(json, JSON)).build();
+  }
+}